@@ -0,0 +1,372 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
+import org.deidentifier.arx.Data.DefaultData;
+import org.deidentifier.arx.framework.check.PartitionExecutor;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
+import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+
+/**
+ * Sets up the internal operators of the check engine for micro benchmarks, in the same way
+ * as they are set up by the anonymizer. Provides the bundled adult dataset, optionally
+ * scaled up by replicating its records, as well as synthetic datasets with an arbitrary
+ * number of quasi-identifiers.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BenchmarkEnvironment {
+
+    /** The quasi-identifiers of the adult dataset */
+    private static final String[] ADULT_QIS       = { "sex", "age", "race", "marital-status", "education",
+                                                      "native-country", "workclass", "salary-class" };
+
+    /** The sensitive attribute of the adult dataset */
+    private static final String   ADULT_SENSITIVE = "occupation";
+
+    /** The number of snapshots which can be stored */
+    private static final int      HISTORY_SIZE    = 10;
+
+    /**
+     * Loads the adult dataset and replicates its records the given number of times.
+     *
+     * @param scale
+     * @param sensitive Whether to define a sensitive attribute
+     * @return
+     * @throws IOException
+     */
+    public static Data createAdult(int scale, boolean sensitive) throws IOException {
+
+        // Load
+        Data input = Data.create(getPath("adult.csv"), StandardCharsets.UTF_8, ';');
+        List<String[]> rows = new ArrayList<String[]>();
+        Iterator<String[]> iterator = input.getHandle().iterator();
+        String[] header = iterator.next();
+        while (iterator.hasNext()) {
+            rows.add(iterator.next());
+        }
+
+        // Replicate
+        List<String[]> list = new ArrayList<String[]>();
+        list.add(header);
+        for (int i = 0; i < scale; i++) {
+            list.addAll(rows);
+        }
+        Data data = Data.create(list);
+
+        // Define
+        for (String attribute : ADULT_QIS) {
+            data.getDefinition().setAttributeType(attribute, Hierarchy.create(getPath("adult_hierarchy_" + attribute + ".csv"), StandardCharsets.UTF_8, ';'));
+        }
+        if (sensitive) {
+            data.getDefinition().setAttributeType(ADULT_SENSITIVE, AttributeType.SENSITIVE_ATTRIBUTE);
+        } else {
+            data.getDefinition().setAttributeType(ADULT_SENSITIVE, Hierarchy.create(getPath("adult_hierarchy_" + ADULT_SENSITIVE + ".csv"), StandardCharsets.UTF_8, ';'));
+        }
+        return data;
+    }
+
+    /**
+     * Creates one of the datasets used in benchmarks:
+     * <ul>
+     * <li>adult: the bundled adult dataset</li>
+     * <li>adult-x10: the adult dataset, scaled up to ten times its size</li>
+     * <li>synthetic: 100,000 records with 16 quasi-identifiers</li>
+     * </ul>
+     *
+     * @param name
+     * @param sensitive Whether to define a sensitive attribute, if supported by the dataset
+     * @return
+     * @throws IOException
+     */
+    public static Data createData(String name, boolean sensitive) throws IOException {
+        if (name.equals("adult")) {
+            return createAdult(1, sensitive);
+        } else if (name.equals("adult-x10")) {
+            return createAdult(10, sensitive);
+        } else if (name.equals("synthetic")) {
+            return createSynthetic(100000, 16, 1000, 0xDEADBEEF);
+        } else {
+            throw new IllegalArgumentException("Unknown dataset: " + name);
+        }
+    }
+
+    /**
+     * Creates a synthetic dataset with uniformly distributed values. Each quasi-identifier
+     * has a hierarchy with four levels, which groups values into intervals of increasing size.
+     *
+     * @param rows
+     * @param columns
+     * @param domain The number of distinct values per column
+     * @param seed
+     * @return
+     */
+    public static Data createSynthetic(int rows, int columns, int domain, long seed) {
+
+        // Create data
+        Random random = new Random(seed);
+        DefaultData data = Data.create();
+        String[] header = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            header[column] = "attribute-" + column;
+        }
+        data.add(header);
+        for (int row = 0; row < rows; row++) {
+            String[] record = new String[columns];
+            for (int column = 0; column < columns; column++) {
+                record[column] = String.valueOf(random.nextInt(domain));
+            }
+            data.add(record);
+        }
+
+        // Create hierarchies
+        for (int column = 0; column < columns; column++) {
+            DefaultHierarchy hierarchy = Hierarchy.create();
+            for (int value = 0; value < domain; value++) {
+                hierarchy.add(String.valueOf(value),
+                              getInterval(value, 10),
+                              getInterval(value, 100),
+                              "*");
+            }
+            data.getDefinition().setAttributeType(header[column], hierarchy);
+        }
+        return data;
+    }
+
+    /**
+     * Returns an interval of the given size containing the given value
+     *
+     * @param value
+     * @param size
+     * @return
+     */
+    private static String getInterval(int value, int size) {
+        int min = (value / size) * size;
+        return "[" + min + ", " + (min + size) + "[";
+    }
+
+    /**
+     * Returns the path of a bundled dataset
+     *
+     * @param name
+     * @return
+     */
+    private static String getPath(String name) {
+        return new File(System.getProperty("arx.data", "data"), name).getPath();
+    }
+
+    /** The configuration */
+    private final ARXConfiguration         config;
+
+    /** The data manager */
+    private final DataManager              manager;
+
+    /** The solution space */
+    private final SolutionSpace            solutionSpace;
+
+    /** The history */
+    private final History                  history;
+
+    /** The executor for partitions */
+    private final PartitionExecutor        partitionExecutor;
+
+    /** The transformer */
+    private final Transformer              transformer;
+
+    /**
+     * Encodes the given data and initializes all operators for the given configuration
+     *
+     * @param data
+     * @param config
+     * @throws IOException
+     */
+    public BenchmarkEnvironment(Data data, ARXConfiguration config) throws IOException {
+
+        // Encode
+        DataHandleInput handle = (DataHandleInput) data.getHandle();
+        handle.getDefinition().materializeHierarchies(handle);
+        this.config = config.clone();
+        this.manager = new DataManager(handle.header,
+                                       handle.data,
+                                       handle.dictionary,
+                                       handle.getDefinition(),
+                                       this.config.getPrivacyModels(),
+                                       new HashMap<String, DistributionAggregateFunction>());
+
+        // Initialize
+        this.config.initialize(manager);
+        this.solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        this.config.getQualityModel().initialize(manager, handle.getDefinition(), manager.getDataGeneralized(), manager.getHierarchies(), this.config);
+
+        // Create operators
+        ARXConfigurationInternal internal = this.config.getInternalConfiguration();
+        this.history = new History(manager.getDataGeneralized().getArray().length,
+                                   HISTORY_SIZE,
+                                   1d,
+                                   1d,
+                                   internal,
+                                   new IntArrayDictionary(1024),
+                                   new IntArrayDictionary(1024),
+                                   solutionSpace);
+        this.partitionExecutor = new PartitionExecutor(internal.getNumberOfPartitions());
+        this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
+                                           manager.getDataAnalyzed().getArray(),
+                                           manager.getHierarchies(),
+                                           internal,
+                                           this.config.getQualityModel(),
+                                           history.getDictionarySensValue(),
+                                           history.getDictionarySensFreq(),
+                                           partitionExecutor);
+    }
+
+    /**
+     * Creates a new groupify operator
+     *
+     * @return
+     */
+    public HashGroupify createGroupify() {
+        return new HashGroupify(getNumberOfRows() / 100, config.getInternalConfiguration());
+    }
+
+    /**
+     * Returns the data manager
+     *
+     * @return
+     */
+    public DataManager getDataManager() {
+        return manager;
+    }
+
+    /**
+     * Returns a generalization scheme in which each attribute is generalized to the given
+     * fraction of the height of its hierarchy
+     *
+     * @param fraction
+     * @return
+     */
+    public int[] getGeneralization(double fraction) {
+        int[] min = manager.getHierarchiesMinLevels();
+        int[] max = manager.getHierarchiesMaxLevels();
+        int[] result = new int[min.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = min[i] + (int) Math.round((max[i] - min[i]) * fraction);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the history
+     *
+     * @return
+     */
+    public History getHistory() {
+        return history;
+    }
+
+    /**
+     * Returns the maximal generalization levels
+     *
+     * @return
+     */
+    public int[] getMaxLevels() {
+        return manager.getHierarchiesMaxLevels();
+    }
+
+    /**
+     * Returns the quality model
+     *
+     * @return
+     */
+    public Metric<?> getMetric() {
+        return config.getQualityModel();
+    }
+
+    /**
+     * Returns the number of quasi-identifiers
+     *
+     * @return
+     */
+    public int getNumberOfQuasiIdentifiers() {
+        return manager.getHierarchies().length;
+    }
+
+    /**
+     * Returns the number of records
+     *
+     * @return
+     */
+    public int getNumberOfRows() {
+        return manager.getDataGeneralized().getDataLength();
+    }
+
+    /**
+     * Returns the solution space
+     *
+     * @return
+     */
+    public SolutionSpace getSolutionSpace() {
+        return solutionSpace;
+    }
+
+    /**
+     * Returns the transformation with the given generalization levels
+     *
+     * @param generalization
+     * @return
+     */
+    public Transformation getTransformation(int[] generalization) {
+        return solutionSpace.getTransformation(generalization);
+    }
+
+    /**
+     * Returns the transformer
+     *
+     * @return
+     */
+    public Transformer getTransformer() {
+        return transformer;
+    }
+
+    /**
+     * Frees all resources
+     */
+    public void shutdown() {
+        history.reset();
+        partitionExecutor.shutdown();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.framework.check.distribution.Distribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building and merging frequency distributions of sensitive values.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkDistribution {
+
+    /** The number of values added */
+    private static final int NUM_VALUES        = 100000;
+
+    /** The number of distributions merged */
+    private static final int NUM_DISTRIBUTIONS = 1000;
+
+    /** The number of distinct values */
+    @Param({ "2", "16", "256", "4096" })
+    public int               domain;
+
+    /** The values */
+    private int[]            values;
+
+    /** The distributions */
+    private Distribution[]   distributions;
+
+    /** The distributions in packed form */
+    private int[][][]        packed;
+
+    /**
+     * Prepares the benchmark
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(0xDEADBEEF);
+        values = new int[NUM_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(domain);
+        }
+        distributions = new Distribution[NUM_DISTRIBUTIONS];
+        packed = new int[NUM_DISTRIBUTIONS][][];
+        for (int i = 0; i < distributions.length; i++) {
+            distributions[i] = new Distribution();
+            for (int j = 0; j < NUM_VALUES / NUM_DISTRIBUTIONS; j++) {
+                distributions[i].add(values[random.nextInt(values.length)]);
+            }
+            packed[i] = distributions[i].pack();
+        }
+    }
+
+    /**
+     * Adds all values to a distribution
+     *
+     * @return
+     */
+    @Benchmark
+    public int add() {
+        Distribution distribution = new Distribution();
+        for (int value : values) {
+            distribution.add(value);
+        }
+        return distribution.size();
+    }
+
+    /**
+     * Merges all distributions
+     *
+     * @return
+     */
+    @Benchmark
+    public int merge() {
+        Distribution distribution = new Distribution();
+        for (Distribution other : distributions) {
+            distribution.merge(other);
+        }
+        return distribution.size();
+    }
+
+    /**
+     * Merges all distributions in packed form, as done when processing snapshots
+     *
+     * @return
+     */
+    @Benchmark
+    public int mergePacked() {
+        Distribution distribution = new Distribution();
+        for (int[][] other : packed) {
+            distribution.merge(other[0], other[1]);
+        }
+        return distribution.size();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks inserting records into the groupify operator and analyzing the resulting
+ * equivalence classes.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkGroupify {
+
+    /** The dataset */
+    @Param({ "adult", "adult-x10", "synthetic" })
+    public String                dataset;
+
+    /** Whether to use open addressing */
+    @Param({ "false", "true" })
+    public boolean               openAddressing;
+
+    /** The environment */
+    private BenchmarkEnvironment environment;
+
+    /** The groupify operator */
+    private HashGroupify         groupify;
+
+    /** The transformation */
+    private Transformation       transformation;
+
+    /** The transformed data */
+    private int[][]              buffer;
+
+    /**
+     * Prepares the benchmark
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        config.setUseOpenAddressingForGroupify(openAddressing);
+        environment = new BenchmarkEnvironment(BenchmarkEnvironment.createData(dataset, false), config);
+        transformation = environment.getTransformation(environment.getGeneralization(0.5d));
+        groupify = environment.createGroupify();
+        buffer = environment.getTransformer().getBuffer();
+        environment.getTransformer().apply(0L, transformation.getGeneralization(), groupify);
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown
+    public void tearDown() {
+        environment.shutdown();
+    }
+
+    /**
+     * Inserts all records
+     *
+     * @return
+     */
+    @Benchmark
+    public int insert() {
+        groupify.stateClear();
+        for (int row = 0; row < buffer.length; row++) {
+            groupify.addFromBuffer(buffer[row], null, row, 1, -1);
+        }
+        return groupify.getNumberOfEquivalenceClasses();
+    }
+
+    /**
+     * Inserts all records and analyzes the equivalence classes
+     *
+     * @return
+     */
+    @Benchmark
+    public boolean insertAndAnalyze() {
+        insert();
+        groupify.stateAnalyze(transformation, true);
+        return groupify.isPrivacyModelFulfilled();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.History;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks creating snapshots of equivalence classes in the history.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkHistory {
+
+    /** The dataset */
+    @Param({ "adult", "adult-x10" })
+    public String                dataset;
+
+    /** The privacy model, which determines the content of snapshots */
+    @Param({ "k-anonymity", "l-diversity", "t-closeness" })
+    public String                model;
+
+    /** Whether to compress snapshots */
+    @Param({ "false", "true" })
+    public boolean               compressed;
+
+    /** The environment */
+    private BenchmarkEnvironment environment;
+
+    /** The history */
+    private History              history;
+
+    /** The groupify operator */
+    private HashGroupify         groupify;
+
+    /** The transformation */
+    private Transformation       transformation;
+
+    /**
+     * Prepares the benchmark
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        if (model.equals("l-diversity")) {
+            config.addPrivacyModel(new DistinctLDiversity("occupation", 2));
+        } else if (model.equals("t-closeness")) {
+            config.addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d));
+        }
+        config.setUseCompressedSnapshots(compressed);
+        environment = new BenchmarkEnvironment(BenchmarkEnvironment.createData(dataset, !model.equals("k-anonymity")), config);
+        history = environment.getHistory();
+        transformation = environment.getTransformation(environment.getGeneralization(0.25d));
+        transformation.setProperty(environment.getSolutionSpace().getPropertyForceSnapshot());
+        groupify = environment.createGroupify();
+        environment.getTransformer().apply(0L, transformation.getGeneralization(), groupify);
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown
+    public void tearDown() {
+        environment.shutdown();
+    }
+
+    /**
+     * Creates and stores a snapshot
+     *
+     * @return
+     */
+    @Benchmark
+    public boolean createSnapshot() {
+        history.reset();
+        return history.store(transformation, groupify, null);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks computing the information loss of a transformation with the main quality models.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkMetrics {
+
+    /** The dataset */
+    @Param({ "adult", "adult-x10" })
+    public String                dataset;
+
+    /** The quality model */
+    @Param({ "Loss", "Entropy", "NormalizedEntropy", "Precision", "Height", "AECS", "Discernability", "Ambiguity", "KLDivergence" })
+    public String                metric;
+
+    /** The environment */
+    private BenchmarkEnvironment environment;
+
+    /** The groupify operator */
+    private HashGroupify         groupify;
+
+    /** The transformation */
+    private Transformation       transformation;
+
+    /**
+     * Prepares the benchmark
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+        ARXConfiguration config = ARXConfiguration.create(0.04d, createMetric(metric));
+        config.addPrivacyModel(new KAnonymity(5));
+        environment = new BenchmarkEnvironment(BenchmarkEnvironment.createData(dataset, false), config);
+        transformation = environment.getTransformation(environment.getGeneralization(0.5d));
+        groupify = environment.createGroupify();
+        environment.getTransformer().apply(0L, transformation.getGeneralization(), groupify);
+        groupify.stateAnalyze(transformation, true);
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown
+    public void tearDown() {
+        environment.shutdown();
+    }
+
+    /**
+     * Computes the information loss
+     *
+     * @return
+     */
+    @Benchmark
+    public Object getInformationLoss() {
+        return environment.getMetric().getInformationLoss(transformation, groupify);
+    }
+
+    /**
+     * Creates the quality model with the given name
+     *
+     * @param name
+     * @return
+     */
+    private static Metric<?> createMetric(String name) {
+        if (name.equals("Loss")) {
+            return Metric.createLossMetric();
+        } else if (name.equals("Entropy")) {
+            return Metric.createEntropyMetric();
+        } else if (name.equals("NormalizedEntropy")) {
+            return Metric.createNormalizedEntropyMetric();
+        } else if (name.equals("Precision")) {
+            return Metric.createPrecisionMetric();
+        } else if (name.equals("Height")) {
+            return Metric.createHeightMetric();
+        } else if (name.equals("AECS")) {
+            return Metric.createAECSMetric();
+        } else if (name.equals("Discernability")) {
+            return Metric.createDiscernabilityMetric();
+        } else if (name.equals("Ambiguity")) {
+            return Metric.createAmbiguityMetric();
+        } else if (name.equals("KLDivergence")) {
+            return Metric.createKLDivergenceMetric();
+        } else {
+            throw new IllegalArgumentException("Unknown quality model: " + name);
+        }
+    }
+}
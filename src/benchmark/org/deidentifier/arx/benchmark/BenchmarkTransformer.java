@@ -0,0 +1,154 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.BenchmarkEnvironment;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
+import org.deidentifier.arx.framework.check.Transformer;
+import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.Metric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the transformer for all types of transitions. The number of attributes which
+ * change between the source and the target transformation determines the implementation
+ * used: one of the specialized transformers for up to 15 attributes or the generic one.
+ * The synthetic dataset with 16 quasi-identifiers is used to cover all of them.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BenchmarkTransformer {
+
+    /** The number of attributes that change */
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16" })
+    public int                   changed;
+
+    /** The type of transition */
+    @Param({ "UNOPTIMIZED", "ROLLUP", "SNAPSHOT" })
+    public TransitionType        transition;
+
+    /** The environment */
+    private BenchmarkEnvironment environment;
+
+    /** The transformer */
+    private Transformer          transformer;
+
+    /** The groupify operator for the source transformation */
+    private HashGroupify         source;
+
+    /** The groupify operator for the target transformation */
+    private HashGroupify         target;
+
+    /** The target transformation */
+    private int[]                generalization;
+
+    /** The snapshot of the source transformation */
+    private int[]                snapshot;
+
+    /** The projection */
+    private long                 projection;
+
+    /**
+     * Prepares the benchmark. The source transformation generalizes the changing attributes to
+     * the lowest and all other attributes to the highest level. The target transformation
+     * generalizes the changing attributes by one more level.
+     *
+     * @throws IOException
+     */
+    @Setup
+    public void setup() throws IOException {
+
+        // Prepare
+        ARXConfiguration config = ARXConfiguration.create(0d, Metric.createLossMetric());
+        config.addPrivacyModel(new KAnonymity(5));
+        environment = new BenchmarkEnvironment(BenchmarkEnvironment.createData("synthetic", false), config);
+        transformer = environment.getTransformer();
+        source = environment.createGroupify();
+        target = environment.createGroupify();
+
+        // Transformations
+        int[] max = environment.getMaxLevels();
+        int[] sourceGeneralization = new int[max.length];
+        generalization = new int[max.length];
+        for (int i = 0; i < max.length; i++) {
+            sourceGeneralization[i] = i < changed ? 0 : max[i];
+            generalization[i] = i < changed ? 1 : max[i];
+            if (i >= changed) {
+                projection |= 1L << i;
+            }
+        }
+
+        // Initialize buffer and source
+        Transformation transformation = environment.getTransformation(sourceGeneralization);
+        transformer.apply(0L, sourceGeneralization, source);
+        transformation.setProperty(environment.getSolutionSpace().getPropertyForceSnapshot());
+        environment.getHistory().store(transformation, source, null);
+        snapshot = environment.getHistory().get(generalization);
+    }
+
+    /**
+     * Frees resources
+     */
+    @TearDown
+    public void tearDown() {
+        environment.shutdown();
+    }
+
+    /**
+     * Applies the transition
+     *
+     * @return
+     */
+    @Benchmark
+    public int transform() {
+        switch (transition) {
+        case UNOPTIMIZED:
+            return transformer.apply(projection, generalization, target).getNumberOfEquivalenceClasses();
+        case ROLLUP:
+            return transformer.applyRollup(projection, generalization, source, target).getNumberOfEquivalenceClasses();
+        case SNAPSHOT:
+            return transformer.applySnapshot(projection, generalization, target, snapshot).getNumberOfEquivalenceClasses();
+        default:
+            throw new IllegalStateException("Unknown transition: " + transition);
+        }
+    }
+}
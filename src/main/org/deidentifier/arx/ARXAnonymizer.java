@@ -17,24 +17,38 @@
 
 package org.deidentifier.arx;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.deidentifier.arx.ARXLattice.ARXNode;
 import org.deidentifier.arx.AttributeType.MicroAggregationFunction;
 import org.deidentifier.arx.algorithm.AbstractAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithm;
 import org.deidentifier.arx.algorithm.FLASHAlgorithmImpl;
 import org.deidentifier.arx.algorithm.FLASHStrategy;
 import org.deidentifier.arx.algorithm.LIGHTNINGAlgorithm;
+import org.deidentifier.arx.algorithm.PortfolioAlgorithm;
 import org.deidentifier.arx.criteria.BasicBLikeness;
 import org.deidentifier.arx.criteria.DDisclosurePrivacy;
 import org.deidentifier.arx.criteria.EDDifferentialPrivacy;
 import org.deidentifier.arx.criteria.EnhancedBLikeness;
 import org.deidentifier.arx.criteria.KAnonymity;
 import org.deidentifier.arx.criteria.LDiversity;
+import org.deidentifier.arx.criteria.PrivacyCriterion;
 import org.deidentifier.arx.criteria.TCloseness;
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
@@ -45,6 +59,7 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
 import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.metric.MetricConfiguration;
 
 /**
  * This class offers several methods to define parameters and execute the ARX
@@ -120,7 +135,7 @@ public class ARXAnonymizer {
 
 		    // Create lattice
 	        final ARXLattice lattice = new ARXLattice(solutionSpace,
-	                                                  (algorithm instanceof FLASHAlgorithmImpl),
+	                                                  (algorithm instanceof FLASHAlgorithmImpl) && !algorithm.isStopped(),
 	                                                  optimum,
 	                                                  manager.getDataGeneralized().getHeader(),
 	                                                  config.getInternalConfiguration());
@@ -139,20 +154,44 @@ public class ARXAnonymizer {
 		}
     }
 
+    /** File for checkpoints of the search, if any. */
+    private File                       checkpointFile        = null;
+
+    /** Minimal time between two checkpoints, in milliseconds. */
+    private long                       checkpointInterval    = 60000L;
+
     /** History size. */
-    private int         historySize          = 200;
+    private int                        historySize           = 200;
+
+    /** History memory limit. */
+    private long                       historyMemoryLimit    = Long.MAX_VALUE;
+
+    /** Directory for snapshots spilled to disk. */
+    private File                       historySpillDirectory = null;
+
+    /** Maximal size of snapshots spilled to disk. */
+    private long                       historySpillLimit     = 1L << 30;
 
     /** The listener, if any. */
-    private ARXListener listener             = null;
+    private ARXListener                listener              = null;
+
+    /** The listener for improved solutions, if any. */
+    private ARXSolutionListener        solutionListener      = null;
+
+    /** The algorithm which is currently being executed, if any. */
+    private volatile AbstractAlgorithm runningAlgorithm      = null;
+
+    /** Whether the current anonymization has been requested to stop. */
+    private volatile boolean           stopRequested         = false;
 
     /** Snapshot size. */
-    private double      snapshotSizeDataset  = 0.2d;
+    private double                     snapshotSizeDataset   = 0.2d;
 
     /** Snapshot size snapshot. */
-    private double      snapshotSizeSnapshot = 0.8d;
+    private double                     snapshotSizeSnapshot  = 0.8d;
 
     /** The maximal number of QIs that can be processed. */
-    private int         maxQuasiIdentifiers  = Integer.MAX_VALUE;
+    private int                        maxQuasiIdentifiers   = Integer.MAX_VALUE;
 
 
     /**
@@ -190,7 +229,28 @@ public class ARXAnonymizer {
      * @throws IOException
      */
     public ARXResult anonymize(final Data data, ARXConfiguration config) throws IOException {
+        return anonymize(data, config, null);
+    }
+
+    /**
+     * Performs data anonymization, starting from the solution of a previous run, e.g. on an
+     * earlier version of the dataset to which rows have been appended. The previous optimum
+     * is checked on the new data first. If it is still a good solution, large parts of the
+     * solution space can be pruned early on when the quality model is monotonic, while the
+     * result is the same as the result of a search from scratch. The previous solution is
+     * ignored if it does not match the quasi-identifiers and hierarchies of the data.
+     *
+     * @param data The data
+     * @param config The privacy config
+     * @param previous The previous result, may be <code>null</code>
+     * @return ARXResult
+     * @throws IOException
+     */
+    public ARXResult anonymize(final Data data, ARXConfiguration config, ARXResult previous) throws IOException {
         
+        // Stop requests only apply to the current anonymization
+        this.stopRequested = false;
+
         if (((DataHandleInput)data.getHandle()).isLocked()){
             throw new RuntimeException("This data handle is locked. Please release it first");
         }
@@ -214,9 +274,57 @@ public class ARXAnonymizer {
 
 
         // Execute
-        return anonymize(manager, handle.getDefinition(), config).asResult(config, handle);
+        ARXNode initial = previous != null ? previous.getGlobalOptimum() : null;
+        return anonymize(manager, handle.getDefinition(), config, initial).asResult(config, handle);
     }
     
+    /**
+     * Returns the file to which checkpoints of the search are written. Returns <code>null</code>
+     * if checkpoints are disabled.
+     * 
+     * @return The file
+     */
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Returns the minimal time between two checkpoints, in milliseconds.
+     * 
+     * @return The interval
+     */
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Returns the maximum size in bytes of all snapshots stored in the history.
+     * 
+     * @return The limit
+     */
+    public long getHistoryMemoryLimit() {
+        return historyMemoryLimit;
+    }
+
+    /**
+     * Returns the directory in which snapshots evicted from the history are spilled to disk.
+     * Returns <code>null</code> if spilling is disabled.
+     * 
+     * @return The directory
+     */
+    public File getHistorySpillDirectory() {
+        return historySpillDirectory;
+    }
+
+    /**
+     * Returns the maximum size in bytes of all snapshots spilled to disk.
+     * 
+     * @return The limit
+     */
+    public long getHistorySpillLimit() {
+        return historySpillLimit;
+    }
+
     /**
      * Returns the maximum number of snapshots allowed to store in the history.
      * 
@@ -253,6 +361,49 @@ public class ARXAnonymizer {
         return maxQuasiIdentifiers;
     }
 
+    /**
+     * Sets a file to which the state of the search is written periodically. If the file exists
+     * when the search is started, e.g. after a crash or a restart of the process, the search is
+     * resumed from this checkpoint and transformations which have already been checked are
+     * skipped. The checkpoint must have been created for the same data and configuration, which
+     * is verified with a digest of the encoded data, the hierarchies and the configuration. If
+     * it does not match, an IOException is thrown. The file is deleted when the search has
+     * completed.
+     * Checkpoints are only supported by the optimal search algorithm. Pass <code>null</code> to
+     * disable checkpoints, which is the default.
+     * 
+     * @param checkpointFile
+     *            The file
+     */
+    public void setCheckpointFile(final File checkpointFile) {
+        if (checkpointFile != null && checkpointFile.isDirectory()) { throw new IllegalArgumentException("Not a file: " + checkpointFile); }
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Sets the minimal time between two checkpoints, in milliseconds. The default is one minute.
+     * 
+     * @param checkpointInterval
+     *            The interval
+     */
+    public void setCheckpointInterval(final long checkpointInterval) {
+        if (checkpointInterval < 0) { throw new IllegalArgumentException("Checkpoint interval must be positive or 0"); }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Sets the maximum size in bytes of all snapshots stored in the history. When the limit
+     * is reached, snapshots which are rarely used and large are evicted first. If multiple
+     * threads are used, the limit is divided evenly between their histories.
+     * 
+     * @param historyMemoryLimit
+     *            The limit
+     */
+    public void setHistoryMemoryLimit(final long historyMemoryLimit) {
+        if (historyMemoryLimit <= 0) { throw new IllegalArgumentException("Memory limit must be positive"); }
+        this.historyMemoryLimit = historyMemoryLimit;
+    }
+
     /**
      * Sets the maximum number of snapshots allowed to store in the history.
      * 
@@ -264,6 +415,33 @@ public class ARXAnonymizer {
         this.historySize = historySize;
     }
 
+    /**
+     * Sets the directory in which snapshots evicted from the history are stored in a
+     * memory-mapped scratch file. This allows to benefit from snapshots during long searches
+     * on large datasets without keeping all of them on the heap. The file is deleted when the
+     * search has finished. Pass <code>null</code> to disable spilling, which is the default.
+     * 
+     * @param historySpillDirectory
+     *            The directory
+     */
+    public void setHistorySpillDirectory(final File historySpillDirectory) {
+        if (historySpillDirectory != null && !historySpillDirectory.isDirectory()) { throw new IllegalArgumentException("Not a directory: " + historySpillDirectory); }
+        this.historySpillDirectory = historySpillDirectory;
+    }
+
+    /**
+     * Sets the maximum size in bytes of all snapshots spilled to disk. When the limit is
+     * reached, the oldest snapshots are overwritten. The default is 1 GB. If multiple
+     * threads are used, the limit is divided evenly between their histories.
+     * 
+     * @param historySpillLimit
+     *            The limit
+     */
+    public void setHistorySpillLimit(final long historySpillLimit) {
+        if (historySpillLimit <= 0) { throw new IllegalArgumentException("Spill limit must be positive"); }
+        this.historySpillLimit = historySpillLimit;
+    }
+
     /**
      * Sets a listener.
      * 
@@ -274,6 +452,33 @@ public class ARXAnonymizer {
         this.listener = listener;
     }
 
+    /**
+     * Sets a listener which is notified whenever the search has found a solution that is
+     * better than all solutions found before. Together with {@link #stop()}, this allows
+     * to obtain a usable result within a given latency budget.
+     * 
+     * @param listener
+     *            the new listener, if any
+     */
+    public void setSolutionListener(final ARXSolutionListener listener) {
+        this.solutionListener = listener;
+    }
+
+    /**
+     * Requests the currently running anonymization to stop. The search will terminate as soon
+     * as possible and {@link #anonymize(Data, ARXConfiguration)} will return a result for the
+     * best solution found so far. If the search has not been started yet, e.g. because the
+     * data is still being prepared, it will stop right after it has been started. Has no
+     * effect if no anonymization is running. May be called from any thread.
+     */
+    public void stop() {
+        this.stopRequested = true;
+        AbstractAlgorithm algorithm = this.runningAlgorithm;
+        if (algorithm != null) {
+            algorithm.stop();
+        }
+    }
+
     /**
      * Sets the maximum size of a snapshot relative to the dataset size.
      *
@@ -545,6 +750,9 @@ public class ARXAnonymizer {
         
         if (config.isHeuristicSearchEnabled() ||
             solutionSpace.getSize() > config.getHeuristicSearchThreshold()) {
+            if (config.isHeuristicSearchPortfolioEnabled()) {
+                return PortfolioAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
+            }
             return LIGHTNINGAlgorithm.create(solutionSpace, checker, config.getHeuristicSearchTimeLimit());
             
         } else {
@@ -553,6 +761,100 @@ public class ARXAnonymizer {
         }
     }
 
+    /**
+     * Returns a fingerprint of the problem instance, which is used to detect checkpoints
+     * that have been created for different data or a different configuration. The
+     * fingerprint is a SHA-256 digest of the encoded data, the dictionaries, the
+     * generalization hierarchies, the bounds of the solution space and all parameters
+     * of the configuration which affect the result of the search.
+     *
+     * @param config
+     * @param manager
+     * @return
+     * @throws IOException
+     */
+    private byte[] getCheckpointFingerprint(final ARXConfiguration config, final DataManager manager) throws IOException {
+
+        // Prepare
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                // Only the digest is needed
+            }
+            @Override
+            public void write(byte[] b, int off, int len) {
+                // Only the digest is needed
+            }
+        }, digest)));
+
+        // Data
+        writeFingerprint(out, manager.getDataGeneralized().getHeader());
+        writeFingerprint(out, manager.getDataGeneralized().getArray());
+        writeFingerprint(out, manager.getDataGeneralized().getDictionary());
+        writeFingerprint(out, manager.getDataAnalyzed().getHeader());
+        writeFingerprint(out, manager.getDataAnalyzed().getArray());
+        writeFingerprint(out, manager.getDataAnalyzed().getDictionary());
+        writeFingerprint(out, manager.getDataStatic().getHeader());
+        writeFingerprint(out, manager.getDataStatic().getArray());
+        writeFingerprint(out, manager.getDataStatic().getDictionary());
+
+        // Hierarchies and solution space
+        GeneralizationHierarchy[] hierarchies = manager.getHierarchies();
+        out.writeInt(hierarchies.length);
+        for (GeneralizationHierarchy hierarchy : hierarchies) {
+            writeFingerprint(out, hierarchy.getName());
+            writeFingerprint(out, hierarchy.getArray());
+        }
+        writeFingerprint(out, manager.getHierarchiesMinLevels());
+        writeFingerprint(out, manager.getHierarchiesMaxLevels());
+
+        // Privacy models
+        List<String> models = new ArrayList<String>();
+        for (PrivacyCriterion model : config.getPrivacyModels()) {
+            models.add(model.getClass().getName() + ":" + model.toString());
+        }
+        Collections.sort(models);
+        writeFingerprint(out, models.toArray(new String[models.size()]));
+        DataSubset subset = config.getInternalConfiguration().getSubset();
+        writeFingerprint(out, subset == null ? null : subset.getArray());
+
+        // Quality model
+        Metric<?> metric = config.getQualityModel();
+        writeFingerprint(out, metric.getClass().getName() + ":" + metric.toString() + ":" + metric.getAggregateFunction());
+        try {
+            MetricConfiguration metricConfig = metric.getConfiguration();
+            out.writeBoolean(metricConfig.isMonotonic());
+            out.writeDouble(metricConfig.getGsFactor());
+            out.writeBoolean(metricConfig.isPrecomputed());
+            out.writeDouble(metricConfig.getPrecomputationThreshold());
+            writeFingerprint(out, String.valueOf(metricConfig.getAggregateFunction()));
+        } catch (UnsupportedOperationException e) {
+            // The metric is described by its class and its string representation only
+        }
+        List<String> weights = new ArrayList<String>();
+        for (Map.Entry<String, Double> entry : config.getAttributeWeights().entrySet()) {
+            weights.add(entry.getKey() + ":" + entry.getValue());
+        }
+        Collections.sort(weights);
+        writeFingerprint(out, weights.toArray(new String[weights.size()]));
+
+        // Parameters
+        out.writeDouble(config.getMaxOutliers());
+        out.writeBoolean(config.isPracticalMonotonicity());
+        out.writeBoolean(config.isSuppressionAlwaysEnabled());
+        out.writeInt(config.getInternalConfiguration().getSuppressedAttributeTypes());
+
+        // Return
+        out.close();
+        return digest.digest();
+    }
+
     /**
      * Prepares the data manager.
      *
@@ -572,6 +874,41 @@ public class ARXAnonymizer {
         return manager;
     }
 
+    /**
+     * Returns the transformation from the solution space which equals the given node, if any.
+     *
+     * @param node
+     * @param manager
+     * @param solutionSpace
+     * @return
+     */
+    private Transformation getInitialTransformation(final ARXNode node,
+                                                    final DataManager manager,
+                                                    final SolutionSpace solutionSpace) {
+        
+        // Check
+        if (node == null) {
+            return null;
+        }
+        
+        // Map generalization levels
+        String[] header = manager.getDataGeneralized().getHeader();
+        Set<String> attributes = new HashSet<String>(Arrays.asList(node.getQuasiIdentifyingAttributes()));
+        int[] minLevels = manager.getHierarchiesMinLevels();
+        int[] maxLevels = manager.getHierarchiesMaxLevels();
+        int[] generalization = new int[header.length];
+        for (int i = 0; i < header.length; i++) {
+            if (!attributes.contains(header[i])) {
+                return null;
+            }
+            generalization[i] = node.getGeneralization(header[i]);
+            if (generalization[i] < minLevels[i] || generalization[i] > maxLevels[i]) {
+                return null;
+            }
+        }
+        return solutionSpace.getTransformation(generalization);
+    }
+
     /**
      * Reset a previous lattice and run the algorithm .
      *
@@ -584,6 +921,23 @@ public class ARXAnonymizer {
     protected Result anonymize(final DataManager manager,
                                final DataDefinition definition,
                                final ARXConfiguration config) throws IOException {
+        return anonymize(manager, definition, config, null);
+    }
+
+    /**
+     * Reset a previous lattice and run the algorithm, checking the given transformation first.
+     *
+     * @param manager
+     * @param definition
+     * @param config
+     * @param initial
+     * @return
+     * @throws IOException
+     */
+    protected Result anonymize(final DataManager manager,
+                               final DataDefinition definition,
+                               final ARXConfiguration config,
+                               final ARXNode initial) throws IOException {
 
         // Initialize
         config.initialize(manager);
@@ -592,7 +946,9 @@ public class ARXAnonymizer {
         checkAfterEncoding(config, manager);
 
         // Build or clean the lattice
-        SolutionSpace solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(), manager.getHierarchiesMaxLevels());
+        SolutionSpace solutionSpace = new SolutionSpace(manager.getHierarchiesMinLevels(),
+                                                        manager.getHierarchiesMaxLevels(),
+                                                        config.isUseCompactSolutionSpace());
 
         // Initialize the metric
         config.getQualityModel().initialize(manager, definition, manager.getDataGeneralized(), manager.getHierarchies(), config);
@@ -605,6 +961,9 @@ public class ARXAnonymizer {
                                                     snapshotSizeDataset,
                                                     snapshotSizeSnapshot,
                                                     solutionSpace);
+        checker.getHistory().setMemoryLimit(historyMemoryLimit);
+        checker.getHistory().setSpillDirectory(historySpillDirectory);
+        checker.getHistory().setSpillLimit(historySpillLimit);
 
         // Create an algorithm instance
         AbstractAlgorithm algorithm = getAlgorithm(config,
@@ -612,12 +971,34 @@ public class ARXAnonymizer {
                                                    solutionSpace,
                                                    checker);
         algorithm.setListener(listener);
+        algorithm.setSolutionListener(solutionListener);
+        algorithm.setInitialTransformation(getInitialTransformation(initial, manager, solutionSpace));
 
+        // Resume from a checkpoint, if any
+        boolean checkpoint = checkpointFile != null && algorithm.isCheckpointSupported();
+        if (checkpoint) {
+            algorithm.setCheckpoint(checkpointFile, checkpointInterval, getCheckpointFingerprint(config, manager));
+            algorithm.restore();
+        }
         
         // Execute
 
         final long time = System.currentTimeMillis();
-        algorithm.traverse();
+        this.runningAlgorithm = algorithm;
+        if (stopRequested) {
+            algorithm.stop();
+        }
+        try {
+            algorithm.traverse();
+        } finally {
+            this.runningAlgorithm = null;
+            this.stopRequested = false;
+        }
+
+        // The checkpoint is obsolete, if the search has completed
+        if (checkpoint && !algorithm.isStopped()) {
+            checkpointFile.delete();
+        }
         
         // Free resources
         checker.reset();
@@ -631,9 +1012,102 @@ public class ARXAnonymizer {
      * @param anonymizer
      */
     protected void parse(ARXAnonymizer anonymizer) {
+        // Checkpoints refer to the search performed by the given instance and are thus not parsed
         this.historySize = anonymizer.historySize;
+        this.historyMemoryLimit = anonymizer.historyMemoryLimit;
+        this.historySpillDirectory = anonymizer.historySpillDirectory;
+        this.historySpillLimit = anonymizer.historySpillLimit;
         this.snapshotSizeDataset = anonymizer.snapshotSizeDataset;
         this.snapshotSizeSnapshot = anonymizer.snapshotSizeSnapshot;
         this.maxQuasiIdentifiers = anonymizer.maxQuasiIdentifiers;
     }
+
+    /**
+     * Writes an array to the fingerprint of a problem instance
+     *
+     * @param out
+     * @param array
+     * @throws IOException
+     */
+    private void writeFingerprint(DataOutputStream out, int[] array) throws IOException {
+        if (array == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(array.length);
+        for (int value : array) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Writes an array to the fingerprint of a problem instance
+     *
+     * @param out
+     * @param array
+     * @throws IOException
+     */
+    private void writeFingerprint(DataOutputStream out, int[][] array) throws IOException {
+        if (array == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(array.length);
+        for (int[] row : array) {
+            writeFingerprint(out, row);
+        }
+    }
+
+    /**
+     * Writes the values of a dictionary to the fingerprint of a problem instance
+     *
+     * @param out
+     * @param dictionary
+     * @throws IOException
+     */
+    private void writeFingerprint(DataOutputStream out, Dictionary dictionary) throws IOException {
+        String[][] mapping = dictionary.getMapping();
+        if (mapping == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(mapping.length);
+        for (String[] values : mapping) {
+            writeFingerprint(out, values);
+        }
+    }
+
+    /**
+     * Writes a string to the fingerprint of a problem instance
+     *
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    private void writeFingerprint(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length());
+        out.writeChars(value);
+    }
+
+    /**
+     * Writes an array to the fingerprint of a problem instance
+     *
+     * @param out
+     * @param array
+     * @throws IOException
+     */
+    private void writeFingerprint(DataOutputStream out, String[] array) throws IOException {
+        if (array == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(array.length);
+        for (String value : array) {
+            writeFingerprint(out, value);
+        }
+    }
 }
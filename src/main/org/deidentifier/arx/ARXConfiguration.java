@@ -131,6 +131,24 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getMaxOutliers();
         }
 
+        /**
+         * Returns the number of partitions used for transforming data.
+         *
+         * @return
+         */
+        public int getNumberOfPartitions() {
+            return config.getNumberOfPartitions();
+        }
+
+        /**
+         * Returns the number of threads used for checking transformations.
+         *
+         * @return
+         */
+        public int getNumberOfThreads() {
+            return config.getNumberOfThreads();
+        }
+
         /**
          * Returns the quality model to be used for optimizing output data.
          *
@@ -140,6 +158,16 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.getQualityModel();
         }
 
+        /**
+         * Initializes the given copy of the quality model for the given data manager.
+         *
+         * @param metric
+         * @param manager
+         */
+        public void initializeQualityModel(Metric<?> metric, DataManager manager) {
+            metric.initialize(manager, manager.getDataDefinition(), manager.getDataGeneralized(), manager.getHierarchies(), config);
+        }
+
         /**
          * Returns the minimal size of an equivalence class induced by the contained criteria.
          * @return If k-anonymity is contained, k is returned. If l-diversity is contained, l is returned.
@@ -235,6 +263,24 @@ public class ARXConfiguration implements Serializable, Cloneable {
             return config.isUseHeuristicSearchForSampleBasedCriteria();
         }
 
+        /**
+         * Should equivalence classes be grouped with an open addressing hash table?
+         * 
+         * @return
+         */
+        public boolean isUseOpenAddressingForGroupify() {
+            return config.isUseOpenAddressingForGroupify();
+        }
+
+        /**
+         * Should snapshots be compressed?
+         * 
+         * @return
+         */
+        public boolean isUseCompressedSnapshots() {
+            return config.isUseCompressedSnapshots();
+        }
+
         /**
          * Convenience method for checking the requirements.
          *
@@ -375,9 +421,27 @@ public class ARXConfiguration implements Serializable, Cloneable {
     /** The heuristic algorithm will terminate after the given time limit */
     private Integer                            heuristicSearchTimeLimit                         = 30000;
 
+    /** Should we run a portfolio of heuristic search algorithms concurrently? */
+    private Boolean                            heuristicSearchPortfolioEnabled                  = false;
+
     /** Cost/benefit configuration */
     private ARXCostBenefitConfiguration        costBenefitConfiguration                         = ARXCostBenefitConfiguration.create();
 
+    /** Number of threads used for checking transformations */
+    private Integer                            numberOfThreads                                  = 1;
+
+    /** Number of partitions into which the rows are split when transforming data */
+    private Integer                            numberOfPartitions                               = 1;
+
+    /** Should equivalence classes be grouped with an open addressing hash table */
+    private Boolean                            useOpenAddressingForGroupify                     = false;
+
+    /** Should snapshots stored in the history be compressed */
+    private Boolean                            useCompressedSnapshots                           = false;
+
+    /** Should scalar information loss be stored in primitive collections during the search? */
+    private Boolean                            useCompactSolutionSpace                          = false;
+
     /**
      * Creates a new configuration without tuple suppression.
      */
@@ -516,6 +580,12 @@ public class ARXConfiguration implements Serializable, Cloneable {
         result.heuristicSearchEnabled = this.heuristicSearchEnabled;
         result.heuristicSearchThreshold = this.heuristicSearchThreshold;
         result.heuristicSearchTimeLimit = this.heuristicSearchTimeLimit;
+        result.heuristicSearchPortfolioEnabled = this.heuristicSearchPortfolioEnabled;
+        result.numberOfThreads = this.numberOfThreads;
+        result.numberOfPartitions = this.numberOfPartitions;
+        result.useOpenAddressingForGroupify = this.useOpenAddressingForGroupify;
+        result.useCompressedSnapshots = this.useCompressedSnapshots;
+        result.useCompactSolutionSpace = this.useCompactSolutionSpace;
         result.utilityBasedMicroaggregation = this.utilityBasedMicroaggregation;
         result.costBenefitConfiguration = this.getCostBenefitConfiguration().clone();
         if (this.attributeWeights != null) {
@@ -655,6 +725,30 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchTimeLimit;
     }
     
+    /**
+     * Returns the number of partitions into which the rows of the dataset are split when
+     * transformations are applied. The default is 1.
+     * @return
+     */
+    public int getNumberOfPartitions() {
+        if (this.numberOfPartitions == null) {
+            this.numberOfPartitions = 1;
+        }
+        return this.numberOfPartitions;
+    }
+    
+    /**
+     * Returns the number of threads that are used for checking transformations. 
+     * The default is 1.
+     * @return
+     */
+    public int getNumberOfThreads() {
+        if (this.numberOfThreads == null) {
+            this.numberOfThreads = 1;
+        }
+        return this.numberOfThreads;
+    }
+    
     /**
      * Returns the maximum number of allowed outliers.
      *
@@ -848,6 +942,18 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return this.heuristicSearchEnabled;
     }
     
+    /**
+     * Returns whether heuristic search will execute LIGHTNING, a beam search and a genetic
+     * algorithm concurrently instead of LIGHTNING only. The default is false.
+     * @return
+     */
+    public boolean isHeuristicSearchPortfolioEnabled() {
+        if (this.heuristicSearchPortfolioEnabled == null) {
+            this.heuristicSearchPortfolioEnabled = false;
+        }
+        return this.heuristicSearchPortfolioEnabled;
+    }
+    
     /**
      * Is practical monotonicity assumed.
      *
@@ -878,6 +984,41 @@ public class ARXConfiguration implements Serializable, Cloneable {
         return heuristicSearchForSampleBasedCriteria;
     }
 
+    /**
+     * Returns whether information loss is stored in a compact manner during the search.
+     * The default is false.
+     * @return
+     */
+    public boolean isUseCompactSolutionSpace() {
+        if (this.useCompactSolutionSpace == null) {
+            this.useCompactSolutionSpace = false;
+        }
+        return this.useCompactSolutionSpace;
+    }
+
+    /**
+     * Returns whether snapshots stored in the history are compressed. The default is false.
+     * @return
+     */
+    public boolean isUseCompressedSnapshots() {
+        if (this.useCompressedSnapshots == null) {
+            this.useCompressedSnapshots = false;
+        }
+        return this.useCompressedSnapshots;
+    }
+
+    /**
+     * Returns whether equivalence classes are grouped with an open addressing hash table
+     * over primitive arrays. The default is false.
+     * @return
+     */
+    public boolean isUseOpenAddressingForGroupify() {
+        if (this.useOpenAddressingForGroupify == null) {
+            this.useOpenAddressingForGroupify = false;
+        }
+        return this.useOpenAddressingForGroupify;
+    }
+
     /**
      * Returns whether the impact of microaggregation on data utility should be considered
      * @return
@@ -989,6 +1130,17 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchEnabled = heuristicSearchEnabled;
     }
 
+    /**
+     * Sets whether heuristic search will execute LIGHTNING, a beam search and a genetic
+     * algorithm concurrently instead of LIGHTNING only. The algorithms share the best
+     * solution found so far. On hosts with less than three processors, LIGHTNING is
+     * executed alone. The default is false.
+     * @param enabled
+     */
+    public void setHeuristicSearchPortfolioEnabled(boolean enabled) {
+        this.heuristicSearchPortfolioEnabled = enabled;
+    }
+
     /**
      * When the size of the solution space exceeds the given number of transformations,
      * ARX will use a heuristic search strategy. The default is 100.000.
@@ -1010,6 +1162,36 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchTimeLimit = timeInMillis;
     }
 
+    /**
+     * Sets the number of partitions into which the rows of the dataset are split when
+     * transformations are applied. Each partition is transformed and grouped concurrently
+     * and the resulting equivalence classes are merged afterwards. This speeds up checking
+     * individual transformations of large datasets. All threads which check transformations
+     * share one pool of threads for partitions, which is limited to the available processors.
+     * The default is 1.
+     * @param partitions
+     */
+    public void setNumberOfPartitions(int partitions) {
+        if (partitions <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numberOfPartitions = partitions;
+    }
+
+    /**
+     * Sets the number of threads that are used for checking transformations. If more than one
+     * thread is used, transformations that are likely to be checked next will be checked
+     * speculatively in parallel. The result of the search is not affected by this parameter.
+     * The default is 1. Note that each thread uses its own output buffer, which has the size
+     * of the quasi-identifiers in the input dataset (4 bytes per row and attribute), as well
+     * as its own copy of the quality model. Memory requirements thus grow linearly with the
+     * number of threads. The memory limit and the spill limit of the history are divided
+     * between the threads.
+     * @param threads
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads <= 0) { throw new IllegalArgumentException("Parameter must be > 0"); }
+        this.numberOfThreads = threads;
+    }
+
     /**
      * Allows for a certain percentage of outliers and thus
      * triggers tuple suppression.
@@ -1076,6 +1258,38 @@ public class ARXConfiguration implements Serializable, Cloneable {
         this.heuristicSearchForSampleBasedCriteria = value;
     }
 
+    /**
+     * Sets whether information loss is stored in a compact manner during the search. Scalar
+     * values, as produced by single-dimensional quality models, are then kept in primitive
+     * collections and objects are only created when they are requested. This reduces memory
+     * consumption when large solution spaces are searched. The default is false.
+     * @param value
+     */
+    public void setUseCompactSolutionSpace(boolean value) {
+        this.useCompactSolutionSpace = value;
+    }
+
+    /**
+     * Sets whether snapshots stored in the history are compressed. Compressed snapshots require
+     * several times less memory, which means that more snapshots can be kept within the same
+     * limits, but they need to be decoded when they are used. The default is false.
+     * @param value
+     */
+    public void setUseCompressedSnapshots(boolean value) {
+        this.useCompressedSnapshots = value;
+    }
+
+    /**
+     * Sets whether equivalence classes are grouped with an open addressing hash table over
+     * primitive arrays, which reuses its entries, instead of a hash table with chaining. This
+     * reduces the number of objects created when checking transformations which result in
+     * many equivalence classes. The default is false.
+     * @param value
+     */
+    public void setUseOpenAddressingForGroupify(boolean value) {
+        this.useOpenAddressingForGroupify = value;
+    }
+
     /**
      * Sets whether the impact of microaggregation on data utility should be considered 
      * @return
@@ -0,0 +1,201 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.Serializable;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.StateMachine;
+import org.deidentifier.arx.framework.check.history.History;
+
+/**
+ * Statistics about the history of snapshots used during the search for a solution.
+ * These may be used to tune the size and memory limit of the history for a dataset.
+ * The history is searched for every transition except the first one after it has been
+ * cleared. Each request is counted as a hit, an unused hit or a miss.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class ARXHistoryStatistics implements Serializable {
+
+    /** SVUID */
+    private static final long serialVersionUID = -3413546375424185652L;
+
+    /** Number of requests that have been answered with a snapshot. */
+    private final long        hits;
+
+    /** Number of requests for which a snapshot has been found, but a roll-up has been used. */
+    private final long        unusedHits;
+
+    /** Number of requests that could not be answered with a snapshot. */
+    private final long        misses;
+
+    /** Number of snapshots that have been evicted to make room for new ones. */
+    private final long        evictions;
+
+    /** Number of snapshots that have been stored. */
+    private final long        stores;
+
+    /** Peak size of all snapshots in bytes. */
+    private final long        memoryPeak;
+
+    /** Number of snapshots that have been spilled to disk. */
+    private final long        spills;
+
+    /** Number of requests that have been answered with a snapshot from disk. */
+    private final long        spillHits;
+
+    /** Number of transitions which have been performed without optimization. */
+    private final long        unoptimizedTransitions;
+
+    /** Number of transitions which have been performed with the roll-up optimization. */
+    private final long        rollupTransitions;
+
+    /** Number of transitions which have been performed with the snapshot optimization. */
+    private final long        snapshotTransitions;
+
+    /**
+     * Creates a new instance
+     *
+     * @param checker
+     */
+    ARXHistoryStatistics(NodeChecker checker) {
+        History history = checker.getHistory();
+        StateMachine stateMachine = checker.getStateMachine();
+        this.hits = history.getHits();
+        this.unusedHits = history.getUnusedHits();
+        this.misses = history.getMisses();
+        this.evictions = history.getEvictions();
+        this.stores = history.getStores();
+        this.memoryPeak = history.getMemoryPeak();
+        this.spills = history.getSpills();
+        this.spillHits = history.getSpillHits();
+        this.unoptimizedTransitions = stateMachine.getNumberOfUnoptimizedTransitions();
+        this.rollupTransitions = stateMachine.getNumberOfRollups();
+        this.snapshotTransitions = stateMachine.getNumberOfSnapshots();
+    }
+
+    /**
+     * Returns the number of snapshots that have been evicted to make room for new ones
+     *
+     * @return
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of requests that have been answered with a snapshot
+     *
+     * @return
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the peak size of all snapshots in bytes
+     *
+     * @return
+     */
+    public long getMemoryPeak() {
+        return memoryPeak;
+    }
+
+    /**
+     * Returns the number of requests that could not be answered with a snapshot
+     *
+     * @return
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of transitions which have been performed with the roll-up optimization
+     *
+     * @return
+     */
+    public long getRollupTransitions() {
+        return rollupTransitions;
+    }
+
+    /**
+     * Returns the number of transitions which have been performed with the snapshot optimization
+     *
+     * @return
+     */
+    public long getSnapshotTransitions() {
+        return snapshotTransitions;
+    }
+
+    /**
+     * Returns the number of requests that have been answered with a snapshot from disk
+     *
+     * @return
+     */
+    public long getSpillHits() {
+        return spillHits;
+    }
+
+    /**
+     * Returns the number of snapshots that have been spilled to disk
+     *
+     * @return
+     */
+    public long getSpills() {
+        return spills;
+    }
+
+    /**
+     * Returns the number of snapshots that have been stored
+     *
+     * @return
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Returns the number of requests for which a snapshot has been found, but a roll-up has
+     * been used, because it processes fewer equivalence classes
+     *
+     * @return
+     */
+    public long getUnusedHits() {
+        return unusedHits;
+    }
+
+    /**
+     * Returns the number of transitions which have been performed without optimization
+     *
+     * @return
+     */
+    public long getUnoptimizedTransitions() {
+        return unoptimizedTransitions;
+    }
+
+    @Override
+    public String toString() {
+        return "History statistics {hits=" + hits + ", unusedHits=" + unusedHits + ", misses=" + misses + ", evictions=" + evictions +
+               ", stores=" + stores + ", memoryPeak=" + memoryPeak +
+               ", spills=" + spills + ", spillHits=" + spillHits + ", unoptimizedTransitions=" + unoptimizedTransitions +
+               ", rollupTransitions=" + rollupTransitions + ", snapshotTransitions=" + snapshotTransitions + "}";
+    }
+}
@@ -20,15 +20,14 @@ package org.deidentifier.arx;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.certificate.elements.ElementData;
@@ -46,7 +45,9 @@ import de.linearbits.jhpl.JHPLIterator.LongIterator;
 
 /**
  * This class implements a representation of the generalization lattice that is
- * exposed to users of the API.
+ * exposed to users of the API. The representation is backed by the solution space:
+ * nodes are materialized when the lattice is accessed for the first time and the
+ * predecessors and successors of a node are determined on demand.
  *
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -321,43 +322,52 @@ public class ARXLattice implements Serializable {
         }
 
         /** Id. */
-        private Integer              id         = null;
+        private Integer                  id         = null;
 
         /** The access. */
-        private final Access         access     = new Access(this);
+        private final Access             access     = new Access(this);
 
         /** Is it anonymous. */
-        private Anonymity            anonymity;
+        private Anonymity                anonymity;
 
         /** Attributes. */
-        private Map<Integer, Object> attributes = new HashMap<Integer, Object>();
+        private Map<Integer, Object>     attributes = null;
 
         /** Has the node been checked. */
-        private boolean              checked;
+        private boolean                  checked;
 
         /** The header map. */
-        private Map<String, Integer> headermap;
+        private Map<String, Integer>     headermap;
 
         /** The lower bound. */
-        private InformationLoss<?>   lowerBound;
+        private InformationLoss<?>       lowerBound;
 
         /** The max information loss. */
-        private InformationLoss<?>   maxInformationLoss;
+        private InformationLoss<?>       maxInformationLoss;
 
         /** The min information loss. */
-        private InformationLoss<?>   minInformationLoss;
+        private InformationLoss<?>       minInformationLoss;
 
-        /** The predecessors. */
-        private ARXNode[]            predecessors;
+        /** The predecessors, if set explicitly. */
+        private ARXNode[]                predecessors;
 
-        /** The successors. */
-        private ARXNode[]            successors;
+        /** The successors, if set explicitly. */
+        private ARXNode[]                successors;
+
+        /** The predecessors, if determined on demand. */
+        private WeakReference<ARXNode[]> cachedPredecessors;
+
+        /** The successors, if determined on demand. */
+        private WeakReference<ARXNode[]> cachedSuccessors;
+
+        /** The identifier in the solution space, -1 if unknown. */
+        private long                     identifier = -1L;
 
         /** The transformation. */
-        private int[]                transformation;
+        private int[]                    transformation;
 
         /** The underlying lattice */
-        private final ARXLattice     lattice;
+        private final ARXLattice         lattice;
 
         /**
          * Internal constructor for deserialization.
@@ -385,6 +395,7 @@ public class ARXLattice implements Serializable {
             this.lattice = lattice;
             this.headermap = headermap;
             this.transformation = transformation.getGeneralization();
+            this.identifier = transformation.getIdentifier();
             this.minInformationLoss = transformation.getInformationLoss();
             this.maxInformationLoss = transformation.getInformationLoss();
             this.lowerBound = transformation.getLowerBound();
@@ -397,7 +408,7 @@ public class ARXLattice implements Serializable {
                 } else if(transformation.hasProperty(solutions.getPropertyNotAnonymous())) {
                     this.anonymity = Anonymity.NOT_ANONYMOUS;
                 } else {                  
-                    if (!complete) {
+                    if (!lattice.isMaterializedCompletely()) {
                         this.anonymity = Anonymity.UNKNOWN;
                     } else {
                         throw new IllegalStateException("Missing information about transformations");
@@ -414,7 +425,7 @@ public class ARXLattice implements Serializable {
                 } else if (transformation.hasProperty(solutions.getPropertyInsufficientUtility())) {
                     this.anonymity = Anonymity.UNKNOWN;
                 } else {
-                    if (!complete) {
+                    if (!lattice.isMaterializedCompletely()) {
                         this.anonymity = Anonymity.UNKNOWN;
                     } else {
                         throw new IllegalStateException("Missing information about transformations");
@@ -424,7 +435,7 @@ public class ARXLattice implements Serializable {
 
             // Make sure that we have information loss available
             // Important for expand operations
-            if (!complete) {
+            if (!lattice.isMaterializedCompletely()) {
                 if (this.maxInformationLoss == null) {
                     this.maxInformationLoss = metric.createInstanceOfHighestScore();
                 }
@@ -465,6 +476,9 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public Map<Integer, Object> getAttributes() {
+            if (attributes == null) {
+                attributes = new HashMap<Integer, Object>();
+            }
             return attributes;
         }
         
@@ -532,7 +546,15 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public ARXNode[] getPredecessors() {
-            return predecessors;
+            if (predecessors != null || identifier == -1L) {
+                return predecessors;
+            }
+            ARXNode[] result = cachedPredecessors != null ? cachedPredecessors.get() : null;
+            if (result == null) {
+                result = lattice.getNeighbors(this, false);
+                cachedPredecessors = new WeakReference<ARXNode[]>(result);
+            }
+            return result;
         }
 
         /**
@@ -554,7 +576,15 @@ public class ARXLattice implements Serializable {
          * @return
          */
         public ARXNode[] getSuccessors() {
-            return successors;
+            if (successors != null || identifier == -1L) {
+                return successors;
+            }
+            ARXNode[] result = cachedSuccessors != null ? cachedSuccessors.get() : null;
+            if (result == null) {
+                result = lattice.getNeighbors(this, true);
+                cachedSuccessors = new WeakReference<ARXNode[]>(result);
+            }
+            return result;
         }
 
         /**
@@ -653,6 +683,14 @@ public class ARXLattice implements Serializable {
                                                                             getDeserializationContext().maxLevel);
         }
 
+        /**
+         * Discards predecessors and successors determined on demand
+         */
+        private void invalidate() {
+            this.cachedPredecessors = null;
+            this.cachedSuccessors = null;
+        }
+
         /**
          * Returns a node's internal id.
          *
@@ -711,49 +749,67 @@ public class ARXLattice implements Serializable {
     }
 
     /** The accessor. */
-    private final Access            access                 = new Access(this);
+    private final Access                             access                 = new Access(this);
 
     /** The bottom node. */
-    private transient ARXNode       bottom;
+    private transient ARXNode                        bottom;
 
     /** The levels in the lattice. */
-    private transient ARXNode[][]   levels;
+    private transient ARXNode[][]                    levels;
 
     /** Metric. */
-    private Metric<?>               metric;
+    private Metric<?>                                metric;
 
     /** The optimum. */
-    private transient ARXNode       optimum;
+    private transient ARXNode                        optimum;
 
     /** The number of nodes. */
-    private int                     size;
+    private int                                      size;
 
     /** The virtual size */
-    private Long                    virtualSize;
+    private Long                                     virtualSize;
 
     /** The top node. */
-    private transient ARXNode       top;
+    private transient ARXNode                        top;
 
     /** Is practical monotonicity being assumed. */
-    private boolean                 uncertainty;
+    private boolean                                  uncertainty;
 
     /** Is this the result of an optimal algorithm */
-    private Boolean                 complete;
+    private Boolean                                  complete;
 
     /** Monotonicity of information loss. */
-    private boolean                 monotonicAnonymous;
+    private boolean                                  monotonicAnonymous;
 
     /** Monotonicity of information loss. */
-    private boolean                 monotonicNonAnonymous;
+    private boolean                                  monotonicNonAnonymous;
 
     /** Minimum loss in the lattice. */
-    private InformationLoss<?>      minimumInformationLoss = null;
+    private InformationLoss<?>                       minimumInformationLoss = null;
 
     /** Maximum loss in the lattice. */
-    private InformationLoss<?>      maximumInformationLoss = null;
+    private InformationLoss<?>                       maximumInformationLoss = null;
 
     /** The solution space */
-    private transient SolutionSpace solutions;
+    private transient SolutionSpace                  solutions;
+
+    /** The header map, for materializing nodes */
+    private transient Map<String, Integer>           headermap;
+
+    /** Nodes indexed by identifier, for completely materialized lattices */
+    private transient ARXNode[]                      nodes;
+
+    /** Nodes indexed by identifier, for partially materialized lattices */
+    private transient LongObjectOpenHashMap<ARXNode> map;
+
+    /** Offsets of identifiers per dimension, for completely materialized lattices */
+    private transient int[]                          offsets;
+
+    /** Minimal levels, for completely materialized lattices */
+    private transient int[]                          minLevels;
+
+    /** Maximal levels, for completely materialized lattices */
+    private transient int[]                          maxLevels;
 
     /**
      * Constructor.
@@ -781,45 +837,16 @@ public class ARXLattice implements Serializable {
         this.uncertainty = config.isPracticalMonotonicity();
         
         // Build header map
-        final Map<String, Integer> headermap = new HashMap<String, Integer>();
+        this.headermap = new HashMap<String, Integer>();
         int index = 0;
         for (int i = 0; i < header.length; i++) {
-            headermap.put(header[i], index++);
+            this.headermap.put(header[i], index++);
         }
         
-        // Build lattice
-        if (complete) {
-            buildComplete(optimum, headermap);
-        } else {
-            buildIncomplete(optimum, headermap);
+        // Create optimum, the remaining nodes are materialized on demand
+        if (optimum != null) {
+            this.optimum = new ARXNode(this, solutions, optimum, headermap);
         }
-        
-        // find bottom node
-        outer: for (int i = 0; i < this.levels.length; i++) {
-            final ARXNode[] level = this.levels[i];
-            for (int j = 0; j < level.length; j++) {
-                final ARXNode node = level[j];
-                if (node != null) {
-                    this.bottom = node;
-                    break outer;
-                }
-            }
-        }
-
-        // find top node
-        outer: for (int i = this.levels.length - 1; i >= 0; i--) {
-            final ARXNode[] level = this.levels[i];
-            for (int j = 0; j < level.length; j++) {
-                final ARXNode node = level[j];
-                if (node != null) {
-                    this.top = node;
-                    break outer;
-                }
-            }
-        }
-
-        // Estimate information loss of all nodes
-        estimateInformationLoss();
     }
 
     /**
@@ -837,6 +864,10 @@ public class ARXLattice implements Serializable {
     public void expand(ARXNode center) {
         
         // Initialize
+        materialize();
+        if (this.nodes != null) {
+            return;
+        }
         int[] indices = center.getTransformation();
         Transformation transformation = solutions.getTransformation(indices);
         
@@ -845,32 +876,39 @@ public class ARXLattice implements Serializable {
         LongArrayList successors = transformation.getSuccessors();
         neighbors.addAllOfFromTo(successors, 0, successors.size() - 1);
 
-        // Find missing neighbors and initialize variables
-        Map<String, Integer>            headermap = null;
-        LongObjectOpenHashMap<ARXNode>  map = new LongObjectOpenHashMap<ARXNode>();
-        Set<Long>                       missing = new HashSet<Long>();
-        for (int i = 0; i < neighbors.size(); i++) {
-            missing.add(neighbors.getQuick(i));
-        }
-        for (ARXNode[] level : this.levels) {
-            for (ARXNode node : level) {
-                headermap = headermap != null ? headermap : node.headermap;
-                Long id = solutions.getTransformation(node.getTransformation()).getIdentifier();
-                map.put(id, node);
-                missing.remove(id);
+        // Index nodes, e.g. after de-serialization
+        if (this.map == null) {
+            this.map = new LongObjectOpenHashMap<ARXNode>();
+            for (ARXNode[] level : this.levels) {
+                for (ARXNode node : level) {
+                    this.headermap = this.headermap != null ? this.headermap : node.headermap;
+                    node.identifier = solutions.getTransformation(node.getTransformation()).getIdentifier();
+                    node.predecessors = null;
+                    node.successors = null;
+                    node.invalidate();
+                    this.map.put(node.identifier, node);
+                }
             }
         }
         
         // Materialize missing nodes
+        List<ARXNode> missing = new ArrayList<ARXNode>();
         Map<Integer, List<ARXNode>> levels = new HashMap<Integer, List<ARXNode>>();
-        for (long id : missing) {
+        for (int i = 0; i < neighbors.size(); i++) {
+            
+            // Check
+            long id = neighbors.getQuick(i);
+            if (this.map.containsKey(id)) {
+                continue;
+            }
             
             // Materialize
             transformation = solutions.getTransformation(id);
             ARXNode node = new ARXNode(this, solutions, transformation, headermap);
             
             // Store in global map
-            map.put(id, node);
+            this.map.put(id, node);
+            missing.add(node);
             
             // Store in map of levels
             if (!levels.containsKey(transformation.getLevel())) {
@@ -879,6 +917,11 @@ public class ARXLattice implements Serializable {
             levels.get(transformation.getLevel()).add(node);
         }
         
+        // Nothing to do
+        if (missing.isEmpty()) {
+            return;
+        }
+        
         // Insert missing nodes into level Arrays
         for (int level : levels.keySet()) {
             
@@ -910,16 +953,20 @@ public class ARXLattice implements Serializable {
             // Convert
             this.levels[level] = list.toArray(new ARXNode[list.size()]);
         }
+        this.size += missing.size();
         
-        // Build relationships from/to missing nodes
-        for (long id : missing) {
-            this.createExpandedRelationships(solutions, map, id);
+        // Discard relationships of nodes adjacent to missing nodes
+        for (ARXNode node : missing) {
+            for (ARXNode predecessor : node.getPredecessors()) {
+                predecessor.invalidate();
+            }
+            for (ARXNode successor : node.getSuccessors()) {
+                successor.invalidate();
+            }
         }
         
         // Update information loss
-        if (!missing.isEmpty()) {
-            this.estimateInformationLoss();
-        }
+        this.estimateInformationLoss();
     }
     
     /**
@@ -928,6 +975,7 @@ public class ARXLattice implements Serializable {
      * @return
      */
     public ARXNode getBottom() {
+        materialize();
         return bottom;
     }
 
@@ -945,6 +993,7 @@ public class ARXLattice implements Serializable {
      * @return
      */
     public ARXNode[][] getLevels() {
+        materialize();
         return levels;
     }
 
@@ -963,6 +1012,7 @@ public class ARXLattice implements Serializable {
      */
     @Deprecated
     public InformationLoss<?> getMaximumInformationLoss(){
+        materialize();
         if (this.maximumInformationLoss == null) {
             this.estimateInformationLoss();
         }
@@ -976,6 +1026,7 @@ public class ARXLattice implements Serializable {
      */
     @Deprecated
     public InformationLoss<?> getMinimumInformationLoss(){
+        materialize();
         if (this.minimumInformationLoss == null) {
             this.estimateInformationLoss();
         }
@@ -988,6 +1039,7 @@ public class ARXLattice implements Serializable {
      * @return
      */
     public int getSize() {
+        materialize();
         return size;
     }
     
@@ -997,6 +1049,7 @@ public class ARXLattice implements Serializable {
      * @return
      */
     public ARXNode getTop() {
+        materialize();
         return top;
     }
 
@@ -1005,7 +1058,7 @@ public class ARXLattice implements Serializable {
      * @return
      */
     public long getVirtualSize() {
-        return virtualSize != null ? virtualSize : size;
+        return virtualSize != null ? virtualSize : getSize();
     }
 
     /**
@@ -1025,57 +1078,40 @@ public class ARXLattice implements Serializable {
     public ElementData render() {
         ElementData result = new ElementData("Search space");
         result.addProperty("Size", this.virtualSize);
-        result.addProperty("Materialized", this.size);
+        result.addProperty("Materialized", this.getSize());
         result.addProperty("Completely classified", this.complete);
         return result;
     }
     
     /**
      * Build an ARX lattice for a completely classified solution space
-     * @param optimum
-     * @param headermap
      */
-    private void buildComplete(final Transformation optimum, Map<String, Integer> headermap) {
+    private void buildComplete() {
 
         // Init
         this.size = (int) solutions.getSize();
-        int[] offsets = solutions.getMultipliersForLowDimensionalData();
-        int[] maxLevels = solutions.getTop().getGeneralization();
-        int[] minLevels = solutions.getBottom().getGeneralization();
+        this.offsets = solutions.getMultipliersForLowDimensionalData();
+        this.maxLevels = solutions.getTop().getGeneralization();
+        this.minLevels = solutions.getBottom().getGeneralization();
         int topLevel = solutions.getTop().getLevel();
 
         // Create nodes
         int[] levelsizes = new int[topLevel + 1];
-        ARXNode[] cache = new ARXNode[size];
-        for (int identifier = 0; identifier < cache.length; identifier++) {
-            
-            // Create ARXNode
-            Transformation transformation = solutions.getTransformation(identifier);
-            cache[identifier] = new ARXNode(this,
-                                       this.solutions,
-                                       transformation,
-                                       headermap);
-            
-            // Store optimum
-            if (optimum != null && identifier == optimum.getIdentifier()) {
-                this.optimum = cache[identifier];
-            }
+        this.nodes = new ARXNode[size];
+        for (int identifier = 0; identifier < nodes.length; identifier++) {
             
-            // Count successors and predecessors
-            int numSuccessors = 0;
-            int numPredecessors = 0;
-            int[] generalization = transformation.getGeneralization();
-            for (int dimension = 0; dimension<generalization.length; dimension++) {
-                numPredecessors += generalization[dimension] > minLevels[dimension] ? 1 : 0;
-                numSuccessors += generalization[dimension] < maxLevels[dimension] ? 1 : 0;
+            // Create ARXNode or use optimum
+            if (optimum != null && identifier == optimum.identifier) {
+                nodes[identifier] = optimum;
+            } else {
+                nodes[identifier] = new ARXNode(this,
+                                                this.solutions,
+                                                solutions.getTransformation(identifier),
+                                                headermap);
             }
             
             // Increase level size
-            levelsizes[transformation.getLevel()]++;
-            
-            // Initialize arrays
-            cache[identifier].successors = new ARXNode[numSuccessors];
-            cache[identifier].predecessors = new ARXNode[numPredecessors];
+            levelsizes[nodes[identifier].getTotalGeneralizationLevel()]++;
         }
 
         // Generate level arrays
@@ -1084,35 +1120,22 @@ public class ARXLattice implements Serializable {
             levels[i] = new ARXNode[levelsizes[i]];
         }
 
-        // Generate links to successors and predecessors
-        int[] successorIndices = new int[size];
-        int[] predecessorIndices = new int[size];
-        for (int identifier = 0; identifier < cache.length; identifier++) {
-            ARXNode node = cache[identifier];
+        // Assign nodes to levels
+        for (int identifier = 0; identifier < nodes.length; identifier++) {
+            ARXNode node = nodes[identifier];
             int level = node.getTotalGeneralizationLevel();
             --levelsizes[level];
             levels[level][levels[level].length - 1 - levelsizes[level]] = node;
-            int[] generalization = node.getTransformation();
-            for (int dimension = 0; dimension < generalization.length; dimension++) {
-                if (generalization[dimension] < maxLevels[dimension]) {
-                    int successorIdentifier = identifier + offsets[dimension];
-                    ARXNode successor = cache[successorIdentifier];
-                    node.successors[successorIndices[identifier]++] = successor;
-                    successor.predecessors[predecessorIndices[successorIdentifier]++] = node;
-                }
-            }
         }
     }
 
     /**
      * Build an ARX lattice for an incompletely classified solution space
-     * @param optimum
-     * @param headermap
      */
-    private void buildIncomplete(final Transformation optimum, Map<String, Integer> headermap) {
+    private void buildIncomplete() {
 
         // Create nodes
-        final LongObjectOpenHashMap<ARXNode> map = new LongObjectOpenHashMap<ARXNode>();
+        this.map = new LongObjectOpenHashMap<ARXNode>();
         final IntObjectOpenHashMap<List<ARXNode>> levels = new IntObjectOpenHashMap<List<ARXNode>>(); 
         int size = 0;
         int maxlevel = 0;
@@ -1122,12 +1145,10 @@ public class ARXLattice implements Serializable {
             if (!levels.containsKey(transformation.getLevel())) {
                 levels.put(transformation.getLevel(), new ArrayList<ARXNode>());
             }
-            ARXNode node = new ARXNode(this, solutions, transformation, headermap);
+            ARXNode node = optimum != null && transformation.getIdentifier() == optimum.identifier ? optimum :
+                           new ARXNode(this, solutions, transformation, headermap);
             map.put(transformation.getIdentifier(), node);
             levels.get(transformation.getLevel()).add(node);
-            if (optimum != null && transformation.getIdentifier() == optimum.getIdentifier()) {
-                this.optimum = node;
-            }
             maxlevel = Math.max(maxlevel, transformation.getLevel());
             size++;
         }
@@ -1165,13 +1186,6 @@ public class ARXLattice implements Serializable {
                 this.levels[i] = new ARXNode[0];
             }
         }
-        
-        // Create relationships
-        for (LongIterator iterator = solutions.getMaterializedTransformations(); iterator.hasNext();) {
-            createRelationships(solutions, map, iterator.next());
-        }
-        createRelationships(solutions, map, solutions.getTop().getIdentifier());
-        createRelationships(solutions, map, solutions.getBottom().getIdentifier());
     }
 
     /**
@@ -1194,115 +1208,106 @@ public class ARXLattice implements Serializable {
     }
     
     /**
-     * Creates all relationships 
-     * @param solutions
-     * @param map
-     * @param id
+     * Determines the materialized predecessors or successors of the given node
+     * @param node
+     * @param successors
+     * @return
      */
-    private void createExpandedRelationships(final SolutionSpace solutions,
-                                             final LongObjectOpenHashMap<ARXNode> map,
-                                             final long id) {
+    private ARXNode[] getNeighbors(final ARXNode node, final boolean successors) {
         
-        // Obtain given node
-        final ARXNode center = map.get(id);
-        final Transformation transformation = solutions.getTransformation(id);
+        // Prepare
+        materialize();
         
-        // Collect materialized successors and predecessors
-        List<ARXNode> successors = new ArrayList<ARXNode>();
-        List<ARXNode> predecessors = new ArrayList<ARXNode>();
-        
-        LongArrayList list1 = transformation.getSuccessors();
-        for (int i = 0; i < list1.size(); i++) {
-            ARXNode node = map.get(list1.getQuick(i));
-            if (node != null) {
-                successors.add(node);
-            }
-        }
-
-        LongArrayList list2 = transformation.getPredecessors();
-        for (int i = 0; i < list2.size(); i++) {
-            ARXNode node = map.get(list2.getQuick(i));
-            if (node != null) {
-                predecessors.add(node);
+        // Completely materialized lattice: compute identifiers
+        if (this.nodes != null) {
+            int[] generalization = node.getTransformation();
+            int[] identifiers = new int[generalization.length];
+            int count = 0;
+            for (int dimension = 0; dimension < generalization.length; dimension++) {
+                if (successors && generalization[dimension] < maxLevels[dimension]) {
+                    identifiers[count++] = (int) node.identifier + offsets[dimension];
+                } else if (!successors && generalization[dimension] > minLevels[dimension]) {
+                    identifiers[count++] = (int) node.identifier - offsets[dimension];
+                }
             }
-        }
-        
-        // Add successors and predecessors to given node
-        center.successors = successors.toArray(new ARXNode[successors.size()]);
-        center.predecessors = predecessors.toArray(new ARXNode[predecessors.size()]);
-        
-        // Update predecessors
-        for (ARXNode node : predecessors) {
             
-           List<ARXNode> nodeSuccessors = new ArrayList<ARXNode>();
-           nodeSuccessors.addAll(Arrays.asList(node.successors));
-           int index = 0;
-           while (index < nodeSuccessors.size() && compareLexicographically(nodeSuccessors.get(index), center) < 0 ) {
-               index++;
-           }
-           // Subtract
-           index = index == 0 ? 0 : index - 1;
-           nodeSuccessors.add(index, center);
-           
-           // Add and update
-           node.successors = nodeSuccessors.toArray(new ARXNode[nodeSuccessors.size()]); 
+            // Predecessors are ordered by identifier
+            if (!successors) {
+                Arrays.sort(identifiers, 0, count);
+            }
+            ARXNode[] result = new ARXNode[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = nodes[identifiers[i]];
+            }
+            return result;
         }
         
-
-        // Update successors
-        for (ARXNode node : successors) {
-            
-           List<ARXNode> nodePredecessors = new ArrayList<ARXNode>();
-           nodePredecessors.addAll(Arrays.asList(node.predecessors));
-           int index = 0;
-           while (index < nodePredecessors.size() && compareLexicographically(nodePredecessors.get(index), center) < 0 ) {
-               index++;
-           }
-           // Subtract
-           index = index == 0 ? 0 : index - 1;
-           
-           // Add and update
-           nodePredecessors.add(index, center);
-           node.predecessors = nodePredecessors.toArray(new ARXNode[nodePredecessors.size()]); 
+        // Partially materialized lattice: filter neighbors in solution space
+        Transformation transformation = solutions.getTransformation(node.identifier);
+        LongArrayList identifiers = successors ? transformation.getSuccessors() : transformation.getPredecessors();
+        List<ARXNode> result = new ArrayList<ARXNode>();
+        for (int i = 0; i < identifiers.size(); i++) {
+            ARXNode neighbor = map.get(identifiers.getQuick(i));
+            if (neighbor != null) {
+                result.add(neighbor);
+            }
         }
+        return result.toArray(new ARXNode[result.size()]);
     }
-
-
+    
     /**
-     * Creates all relationships
-     * @param solutions
-     * @param map
-     * @param id
+     * Returns whether all transformations are materialized. This is the case for completely
+     * classified solution spaces, unless they are too large to be represented with arrays.
+     * @return
      */
-    private void createRelationships(final SolutionSpace solutions,
-                                     final LongObjectOpenHashMap<ARXNode> map,
-                                     final long id) {
-        final ARXNode fnode = map.get(id);
-        final Transformation transformation = solutions.getTransformation(id);
+    private boolean isMaterializedCompletely() {
+        return complete && (solutions == null || solutions.getSize() <= Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Materializes the nodes of this lattice, if this has not been done, yet
+     */
+    private void materialize() {
         
-        List<ARXNode> successors = new ArrayList<ARXNode>();
-        List<ARXNode> predecessors = new ArrayList<ARXNode>();
+        // Check
+        if (this.levels != null || this.solutions == null) {
+            return;
+        }
+        
+        // Build lattice
+        if (isMaterializedCompletely()) {
+            buildComplete();
+        } else {
+            buildIncomplete();
+        }
         
-        LongArrayList list1 = transformation.getSuccessors();
-        for (int i = 0; i < list1.size(); i++) {
-            ARXNode node = map.get(list1.getQuick(i));
-            if (node != null) {
-                successors.add(node);
+        // find bottom node
+        outer: for (int i = 0; i < this.levels.length; i++) {
+            final ARXNode[] level = this.levels[i];
+            for (int j = 0; j < level.length; j++) {
+                final ARXNode node = level[j];
+                if (node != null) {
+                    this.bottom = node;
+                    break outer;
+                }
             }
         }
 
-        LongArrayList list2 = transformation.getPredecessors();
-        for (int i = 0; i < list2.size(); i++) {
-            ARXNode node = map.get(list2.getQuick(i));
-            if (node != null) {
-                predecessors.add(node);
+        // find top node
+        outer: for (int i = this.levels.length - 1; i >= 0; i--) {
+            final ARXNode[] level = this.levels[i];
+            for (int j = 0; j < level.length; j++) {
+                final ARXNode node = level[j];
+                if (node != null) {
+                    this.top = node;
+                    break outer;
+                }
             }
         }
-        
-        fnode.successors = successors.toArray(new ARXNode[successors.size()]);
-        fnode.predecessors = predecessors.toArray(new ARXNode[predecessors.size()]);
+
+        // Estimate information loss of all nodes
+        estimateInformationLoss();
     }
-    
 
     /**
      * De-serialization.
@@ -1358,7 +1363,8 @@ public class ARXLattice implements Serializable {
      * or not. Additionally, it computes global upper and lower bounds on utility
      */
     protected void estimateInformationLoss() {
-        if (complete) {
+        materialize();
+        if (isMaterializedCompletely()) {
             UtilityEstimator estimator = new UtilityEstimator(this, metric, monotonicAnonymous, monotonicNonAnonymous);
             estimator.estimate();
             this.minimumInformationLoss = estimator.getGlobalMinimum();
@@ -19,6 +19,7 @@ package org.deidentifier.arx;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.deidentifier.arx.ARXAnonymizer.Result;
@@ -30,9 +31,11 @@ import org.deidentifier.arx.framework.check.TransformedData;
 import org.deidentifier.arx.framework.check.distribution.DistributionAggregateFunction;
 import org.deidentifier.arx.framework.data.Data;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.framework.data.DataManager.AttributeTypeInternal;
 import org.deidentifier.arx.framework.data.Dictionary;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
 import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.io.CSVDataOutput;
 import org.deidentifier.arx.metric.Metric;
 
 /**
@@ -79,6 +82,9 @@ public class ARXResult {
     /** The registry. */
     private final SolutionSpace    solutionSpace;
 
+    /** Statistics about the history. */
+    private final ARXHistoryStatistics historyStatistics;
+
     /**
      * Internal constructor for deserialization.
      *
@@ -157,6 +163,7 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = time;
         this.solutionSpace = solutionSpace;
+        this.historyStatistics = new ARXHistoryStatistics(checker);
     }
     
     /**
@@ -192,6 +199,7 @@ public class ARXResult {
         this.optimalNode = lattice.getOptimum();
         this.duration = duration;
         this.solutionSpace = solutionSpace;
+        this.historyStatistics = new ARXHistoryStatistics(checker);
     }
 
 
@@ -253,6 +261,15 @@ public class ARXResult {
         return getOutput(node, false);
     }
     
+    /**
+     * Returns statistics about the history of snapshots used during the search.
+     *
+     * @return
+     */
+    public ARXHistoryStatistics getHistoryStatistics() {
+        return historyStatistics;
+    }
+
     /**
      * Returns the lattice.
      *
@@ -326,25 +343,7 @@ public class ARXResult {
         }
 
         // Apply the transformation
-        final Transformation transformation = solutionSpace.getTransformation(node.getTransformation());
-        TransformedData information = checker.applyTransformation(transformation);
-        checker.reset();
-        transformation.setChecked(information.properties);
-
-        // Store
-        if (!node.isChecked() || node.getHighestScore().compareTo(node.getLowestScore()) != 0) {
-            
-            node.access().setChecked(true);
-            if (transformation.hasProperty(solutionSpace.getPropertyAnonymous())) {
-                node.access().setAnonymous();
-            } else {
-                node.access().setNotAnonymous();
-            }
-            node.access().setHighestScore(transformation.getInformationLoss());
-            node.access().setLowestScore(transformation.getInformationLoss());
-            node.access().setLowerBound(transformation.getLowerBound());
-            lattice.estimateInformationLoss();
-        }
+        TransformedData information = applyTransformation(node);
         
         // Clone if needed
         if (fork) {
@@ -876,6 +875,114 @@ public class ARXResult {
         listener.progress(1d);
     }
     
+    /**
+     * Writes the data obtained by applying the given transformation to the given output. Records
+     * are generalized in the internal buffer and written one by one, without copying the buffer
+     * and without creating a handle, which requires much less memory than obtaining a forked
+     * handle via {@link #getOutput(ARXNode)}. Like {@link #getOutput(ARXNode, boolean)} with
+     * <code>fork=false</code>, this invalidates previous handles obtained without forking.
+     * Handles obtained with forking remain valid.
+     *
+     * @param node the transformation
+     * @param output the output
+     * @throws IOException
+     */
+    public void save(ARXNode node, CSVDataOutput output) throws IOException {
+
+        // Release lock, as the buffer will be overwritten
+        if (bufferLockedByHandle != null) {
+            registry.release(bufferLockedByHandle);
+            bufferLockedByHandle = null;
+            bufferLockedByNode = null;
+        }
+
+        // Apply the transformation
+        final TransformedData information = applyTransformation(node);
+        final int[][] buffer = information.bufferGeneralized.getArray();
+
+        // Prepare columns. Identifying attributes have no data and are always suppressed.
+        final String[] header = manager.getHeader();
+        final int[][][] data = new int[header.length][][];
+        final int[] index = new int[header.length];
+        final String[][] dictionary = new String[header.length][];
+        final boolean[] suppressed = new boolean[header.length];
+        final int types = DataHandleOutput.convert(config.getSuppressedAttributeTypes());
+        prepareColumns(information.bufferGeneralized, information.bufferGeneralized.getMap().length, AttributeTypeInternal.QUASI_IDENTIFYING_GENERALIZED, types, data, index, dictionary, suppressed);
+        prepareColumns(manager.getDataAnalyzed(), manager.getMicroaggregationStartIndex(), AttributeTypeInternal.SENSITIVE, types, data, index, dictionary, suppressed);
+        prepareColumns(information.bufferMicroaggregated, information.bufferMicroaggregated.getMap().length, AttributeTypeInternal.QUASI_IDENTIFYING_MICROAGGREGATED, types, data, index, dictionary, suppressed);
+        prepareColumns(manager.getDataStatic(), manager.getDataStatic().getMap().length, AttributeTypeInternal.INSENSITIVE, types, data, index, dictionary, suppressed);
+
+        // Write header and records
+        output.write(new Iterator<String[]>() {
+
+            /** The current row */
+            private int row = -1;
+
+            @Override
+            public boolean hasNext() {
+                return row < buffer.length;
+            }
+
+            @Override
+            public String[] next() {
+                String[] result;
+                if (row == -1) {
+                    result = header;
+                } else {
+                    result = new String[header.length];
+                    boolean outlier = (buffer[row][0] & Data.OUTLIER_MASK) != 0;
+                    for (int column = 0; column < result.length; column++) {
+                        if (data[column] == null || (outlier && suppressed[column])) {
+                            result[column] = DataType.ANY_VALUE;
+                        } else {
+                            result[column] = dictionary[column][data[column][row][index[column]] & Data.REMOVE_OUTLIER_MASK];
+                        }
+                    }
+                }
+                row++;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+
+    /**
+     * Applies the given transformation to the internal buffer and stores its properties in the lattice
+     * 
+     * @param node
+     * @return
+     */
+    private TransformedData applyTransformation(ARXNode node) {
+
+        // Apply the transformation
+        final Transformation transformation = solutionSpace.getTransformation(node.getTransformation());
+        TransformedData information = checker.applyTransformation(transformation);
+        checker.reset();
+        transformation.setChecked(information.properties);
+
+        // Store
+        if (!node.isChecked() || node.getHighestScore().compareTo(node.getLowestScore()) != 0) {
+            
+            node.access().setChecked(true);
+            if (transformation.hasProperty(solutionSpace.getPropertyAnonymous())) {
+                node.access().setAnonymous();
+            } else {
+                node.access().setNotAnonymous();
+            }
+            node.access().setHighestScore(transformation.getInformationLoss());
+            node.access().setLowestScore(transformation.getInformationLoss());
+            node.access().setLowerBound(transformation.getLowerBound());
+            lattice.estimateInformationLoss();
+        }
+        
+        // Return
+        return information;
+    }
+
     /**
      * Returns a map of all microaggregation functions
      * @param definition
@@ -889,6 +996,35 @@ public class ARXResult {
         return result;
     }
 
+    /**
+     * Registers the first columns of the given data for output
+     * 
+     * @param source
+     * @param columns
+     * @param type
+     * @param suppressedTypes
+     * @param data
+     * @param index
+     * @param dictionary
+     * @param suppressed
+     */
+    private void prepareColumns(Data source,
+                                int columns,
+                                int type,
+                                int suppressedTypes,
+                                int[][][] data,
+                                int[] index,
+                                String[][] dictionary,
+                                boolean[] suppressed) {
+        for (int i = 0; i < columns; i++) {
+            int column = source.getMap()[i];
+            data[column] = source.getArray();
+            index[column] = i;
+            dictionary[column] = source.getDictionary().getMapping()[i];
+            suppressed[column] = (suppressedTypes & (1 << type)) != 0;
+        }
+    }
+
     /**
      * Releases the buffer.
      *
@@ -0,0 +1,90 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * An intermediate solution found during the search for an optimal transformation.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class ARXSolution implements Serializable {
+
+    /** SVUID */
+    private static final long        serialVersionUID = -3510442154812463716L;
+
+    /** The generalization levels */
+    private final int[]              transformation;
+
+    /** The information loss */
+    private final InformationLoss<?> informationLoss;
+
+    /** The time elapsed since the search started, in milliseconds */
+    private final long               time;
+
+    /**
+     * Creates a new instance
+     *
+     * @param transformation
+     * @param informationLoss
+     * @param time
+     */
+    public ARXSolution(int[] transformation, InformationLoss<?> informationLoss, long time) {
+        this.transformation = transformation;
+        this.informationLoss = informationLoss;
+        this.time = time;
+    }
+
+    /**
+     * Returns the information loss of the solution
+     *
+     * @return
+     */
+    public InformationLoss<?> getInformationLoss() {
+        return informationLoss;
+    }
+
+    /**
+     * Returns the time elapsed from the start of the search until the solution was found,
+     * in milliseconds
+     *
+     * @return
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the generalization levels of the solution, one for each quasi-identifier
+     *
+     * @return
+     */
+    public int[] getTransformation() {
+        return transformation;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(transformation) + " " + informationLoss + " (" + time + " ms)";
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx;
+
+/**
+ * A listener which is notified whenever the search has found a solution which is better
+ * than all solutions found before. Notifications are issued from the threads executing
+ * the search, and implementations should return quickly, e.g. by handing the solution
+ * over to a <code>BlockingQueue</code>.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public interface ARXSolutionListener {
+
+    /**
+     * Reports an improved solution
+     *
+     * @param solution The solution
+     */
+    public void solutionFound(ARXSolution solution);
+
+}
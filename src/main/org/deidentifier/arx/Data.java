@@ -17,18 +17,27 @@
 
 package org.deidentifier.arx;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.charset.Charset;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.apache.poi.ss.formula.functions.T;
+import org.deidentifier.arx.framework.data.Dictionary;
+import org.deidentifier.arx.io.CSVDataChecksum;
 import org.deidentifier.arx.io.CSVDataInput;
 import org.deidentifier.arx.io.CSVSyntax;
+import org.deidentifier.arx.io.DataSnapshot;
 import org.deidentifier.arx.io.ImportAdapter;
 import org.deidentifier.arx.io.ImportConfiguration;
 
@@ -66,6 +75,11 @@ public abstract class Data {
             return data.iterator();
         }
 
+        @Override
+        protected int size() {
+            return data.size();
+        }
+
     }
 
     /**
@@ -115,6 +129,11 @@ public abstract class Data {
             };
         }
 
+        @Override
+        protected int size() {
+            return array.length;
+        }
+
     }
 
     /**
@@ -143,6 +162,161 @@ public abstract class Data {
         }
     }
 
+    /**
+     * A data object which is backed by a binary snapshot of the encoded data. If the snapshot is
+     * valid, it is used to create the handle. Otherwise, the data is read from the iterator and
+     * the snapshot is created when the handle is created. The definition is stored in the
+     * snapshot whenever it has changed.
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    static class SnapshotData extends Data {
+
+        /** The snapshot file. */
+        private final File         file;
+
+        /** The checksum of the original data. */
+        private final String       checksum;
+
+        /** Iterator over tuples, if the snapshot is not valid. */
+        private Iterator<String[]> iterator;
+
+        /** The snapshot, if valid. */
+        private DataSnapshot       snapshot;
+
+        /** The serialized definition which has been stored last. */
+        private byte[]             definition;
+
+        /**
+         * Creates a new instance, which will create the snapshot.
+         *
+         * @param file the snapshot file
+         * @param checksum the checksum
+         * @param iterator the iterator
+         */
+        private SnapshotData(final File file, final String checksum, final Iterator<String[]> iterator) {
+            this.file = file;
+            this.checksum = checksum;
+            this.iterator = iterator;
+        }
+
+        /**
+         * Creates a new instance from a valid snapshot.
+         *
+         * @param file the snapshot file
+         * @param checksum the checksum
+         * @param snapshot the snapshot
+         * @throws IOException Signals that an I/O exception has occurred.
+         * @throws ClassNotFoundException If the definition cannot be restored
+         */
+        private SnapshotData(final File file, final String checksum, final DataSnapshot snapshot) throws IOException, ClassNotFoundException {
+            this.file = file;
+            this.checksum = checksum;
+            this.snapshot = snapshot;
+            this.definition = snapshot.getDefinition();
+            ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(this.definition));
+            try {
+                DataDefinition definition = (DataDefinition) input.readObject();
+                definition.setLocked(false);
+                ((Data) this).definition = definition;
+            } finally {
+                input.close();
+            }
+        }
+
+        @Override
+        public DataHandle getHandle() {
+            DataHandle handle = super.getHandle();
+            try {
+                byte[] definition = serialize(getDefinition());
+                if (!Arrays.equals(definition, this.definition)) {
+                    DataSnapshot.writeDefinition(file, definition);
+                    this.definition = definition;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot update snapshot: " + file.getPath(), e);
+            }
+            return handle;
+        }
+
+        @Override
+        DataHandleInput createHandle() {
+
+            // Load from snapshot
+            if (snapshot != null) {
+                return new DataHandleInput(this,
+                                           snapshot.getHeader(),
+                                           snapshot.getData(),
+                                           new Dictionary(snapshot.getDictionary()));
+            }
+
+            // Encode and create snapshot
+            DataHandleInput handle = new DataHandleInput(this);
+            try {
+                byte[] definition = serialize(getDefinition());
+                DataSnapshot.write(file, checksum, handle.header, handle.data, handle.dictionary.getMapping(), definition);
+                this.definition = definition;
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot create snapshot: " + file.getPath(), e);
+            }
+            return handle;
+        }
+
+        @Override
+        protected Iterator<String[]> iterator() {
+            if (iterator != null) {
+                return iterator;
+            }
+            return new Iterator<String[]>() {
+
+                private final String[][] dictionary = snapshot.getDictionary();
+                private final int[][]    data       = snapshot.getData();
+                private int              pos        = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < data.length;
+                }
+
+                @Override
+                public String[] next() throws NoSuchElementException {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    if (pos++ == -1) {
+                        return snapshot.getHeader();
+                    }
+                    String[] result = new String[dictionary.length];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = dictionary[i][data[pos - 1][i]];
+                    }
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Serializes the definition.
+         *
+         * @param definition the definition
+         * @return the serialized definition
+         * @throws IOException Signals that an I/O exception has occurred.
+         */
+        private byte[] serialize(final DataDefinition definition) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream output = new ObjectOutputStream(bytes);
+            output.writeObject(definition);
+            output.close();
+            return bytes.toByteArray();
+        }
+    }
+
     /**
      * Creates a new default data object.
      *
@@ -243,6 +417,45 @@ public abstract class Data {
         return new IterableData(new CSVDataInput(file, charset, config).iterator());
     }
 
+    /**
+     * Creates a new data object from a CSV file, which is backed by a binary snapshot of the
+     * encoded data. If the snapshot exists and has been created from the same file, it is loaded
+     * instead of parsing and encoding the file again. This includes the data definition, which is
+     * stored in the snapshot whenever a handle is requested. Otherwise, the file is parsed and the
+     * snapshot is created when the handle is requested for the first time. Whether the file has
+     * changed is detected with a checksum of its content, its charset and the syntax.
+     *
+     * @param file the file
+     * @param charset the charset
+     * @param config the config
+     * @param snapshot the snapshot file
+     * @return the data
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static Data create(final File file, final Charset charset, final CSVSyntax config, final File snapshot) throws IOException {
+
+        // Checksum
+        String checksum;
+        try {
+            checksum = new CSVDataChecksum(config).getSHA256Checksum(file, charset);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        // Load snapshot, if valid
+        try {
+            DataSnapshot data = DataSnapshot.read(snapshot, checksum);
+            if (data != null) {
+                return new SnapshotData(snapshot, checksum, data);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            // Ignore invalid snapshot
+        }
+
+        // Parse
+        return new SnapshotData(snapshot, checksum, new CSVDataInput(file, charset, config).iterator());
+    }
+
     /**
      * Creates a new data object from a CSV file.
      *
@@ -482,6 +695,9 @@ public abstract class Data {
     /** The data definition. */
     private DataDefinition  definition = new DataDefinition();
 
+    /** The number of threads used for encoding the data. */
+    private int             threads    = 1;
+
     /**
      * Returns the data definition.
      *
@@ -498,17 +714,59 @@ public abstract class Data {
      */
     public DataHandle getHandle() {
         if (handle == null) {
-            handle = new DataHandleInput(this);
+            handle = createHandle();
         } else {
             handle.update(this);
         }
         return handle;
     }
 
+    /**
+     * Returns the number of threads used for encoding the data.
+     *
+     * @return the number of threads
+     */
+    public int getNumberOfThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used for encoding the data when a handle is created. If more than
+     * one thread is used, records are read by the calling thread and encoded by worker threads,
+     * each of which processes a subset of the attributes. The encoding is the same as with a
+     * single thread. Default is 1.
+     *
+     * @param threads
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Creates the data handle.
+     *
+     * @return the handle
+     */
+    DataHandleInput createHandle() {
+        return new DataHandleInput(this);
+    }
+
     /**
      * Iterator.
      *
      * @return the iterator
      */
     protected abstract Iterator<String[]> iterator();
+
+    /**
+     * Returns the number of rows, including the header, or -1 if unknown.
+     *
+     * @return the size
+     */
+    protected int size() {
+        return -1;
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -39,7 +40,10 @@ import org.deidentifier.arx.io.ImportConfiguration;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class DataDefinition implements Cloneable{
+public class DataDefinition implements Cloneable, Serializable {
+
+    /** SVUID */
+    private static final long                           serialVersionUID  = -8287128297418733133L;
 
     /** Is this data definition locked. */
     private boolean                                     locked            = false;
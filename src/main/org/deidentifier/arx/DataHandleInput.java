@@ -17,13 +17,12 @@
 
 package org.deidentifier.arx;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
 import org.deidentifier.arx.DataHandleInternal.InterruptHandler;
 import org.deidentifier.arx.aggregates.StatisticsBuilder;
+import org.deidentifier.arx.framework.data.DataEncoder;
 import org.deidentifier.arx.framework.data.Dictionary;
 
 /**
@@ -78,20 +77,8 @@ public class DataHandleInput extends DataHandle {
         this.dictionary = new Dictionary(header.length);
 
         // Encode data
-        List<int[]> vals = new ArrayList<int[]>();
-        while (iterator.hasNext()) {
-
-            // Process a tuple
-            final String[] strings = iterator.next();
-            final int[] tuple = new int[header.length];
-            for (int i = 0; i < strings.length; i++) {
-                tuple[i] = dictionary.register(i, strings[i]);
-            }
-            vals.add(tuple);
-        }
-
-        // Build array
-        this.data = vals.toArray(new int[vals.size()][]);
+        final int size = data.size();
+        this.data = new DataEncoder(dictionary, header.length, data.getNumberOfThreads()).encode(iterator, size < 0 ? -1 : size - 1);
 
         // finalize dictionary
         this.dictionary.finalizeAll();
@@ -100,6 +87,30 @@ public class DataHandleInput extends DataHandle {
         this.dataTypes = getDataTypeArray();
     }
 
+    /**
+     * Creates a new data handle from data which has already been encoded.
+     *
+     * @param data
+     * @param header
+     * @param encoded
+     * @param dictionary A finalized dictionary
+     */
+    protected DataHandleInput(final Data data, final String[] header, final int[][] encoded, final Dictionary dictionary) {
+
+        // Register
+        this.setRegistry(new DataRegistry());
+        this.getRegistry().updateInput(this);
+        this.definition = data.getDefinition().clone();
+
+        // Init
+        super.header = Arrays.copyOf(header, header.length);
+        this.dictionary = dictionary;
+        this.data = encoded;
+
+        // Create datatype array
+        this.dataTypes = getDataTypeArray();
+    }
+
     @Override
     public String getAttributeName(final int column) {
         checkRegistry();
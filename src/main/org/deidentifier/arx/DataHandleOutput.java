@@ -378,7 +378,7 @@ public class DataHandleOutput extends DataHandle {
      * @param suppressedAttributeTypes
      * @return
      */
-    private int convert(int suppressedAttributeTypes) {
+    static int convert(int suppressedAttributeTypes) {
         int converted = 0;
         for (int j = 0; j < 32; j++) {
             if ((suppressedAttributeTypes & (1 << j)) != 0) {
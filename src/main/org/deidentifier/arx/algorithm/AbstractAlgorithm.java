@@ -17,7 +17,24 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 import org.deidentifier.arx.ARXListener;
+import org.deidentifier.arx.ARXSolution;
+import org.deidentifier.arx.ARXSolutionListener;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.framework.check.NodeChecker;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
@@ -34,20 +51,59 @@ import org.deidentifier.arx.metric.InformationLossWithBound;
  */
 public abstract class AbstractAlgorithm {
 
+    /** Identifies checkpoint files and their format. */
+    private static final int        CHECKPOINT_MAGIC       = 0x41525802;
+
     /** The optimal transformation. */
-    private Transformation     globalOptimum          = null;
+    private volatile Transformation globalOptimum          = null;
 
     /** The optimal information loss. */
-    private InformationLoss<?> optimalInformationLoss = null;
+    private InformationLoss<?>      optimalInformationLoss = null;
 
     /** The listener */
-    private ARXListener      listener               = null;
+    private ARXListener             listener               = null;
+
+    /** The listener for improved solutions */
+    private ARXSolutionListener     solutionListener       = null;
+
+    /** The number of improved solutions found */
+    private long                    solutionsFound         = 0L;
+
+    /** The number of the last solution passed to the listener */
+    private long                    solutionsNotified      = 0L;
+
+    /** Serializes notifications of the listener */
+    private final Object            notificationLock       = new Object();
+
+    /** The start time */
+    private final long              timeStart              = System.currentTimeMillis();
+
+    /** The algorithm with which the optimum is shared, if any. */
+    private AbstractAlgorithm       shared                 = null;
+
+    /** Whether the search has been stopped. */
+    private volatile boolean        stopped                = false;
+
+    /** A transformation which is checked first, if any. */
+    private Transformation          initialTransformation  = null;
+
+    /** The file to which checkpoints are written, if any. */
+    private File                    checkpointFile         = null;
+
+    /** The minimal time between two checkpoints, in milliseconds. */
+    private long                    checkpointInterval     = 0;
+
+    /** Identifies the problem instance for which checkpoints are written. */
+    private byte[]                  checkpointFingerprint  = new byte[0];
+
+    /** The time at which the last checkpoint has been written. */
+    private long                    checkpointTime         = 0;
 
     /** A node checker. */
-    protected NodeChecker      checker                = null;
+    protected NodeChecker           checker                = null;
 
     /** The lattice. */
-    protected SolutionSpace    solutionSpace          = null;
+    protected SolutionSpace         solutionSpace          = null;
 
     /**
      * Walks the lattice.
@@ -67,7 +123,99 @@ public abstract class AbstractAlgorithm {
      * @return
      */
     public Transformation getGlobalOptimum() {
-        return globalOptimum;
+        return shared != null ? shared.getGlobalOptimum() : globalOptimum;
+    }
+
+    /**
+     * Returns the transformation which is checked first, if any.
+     *
+     * @return
+     */
+    public Transformation getInitialTransformation() {
+        return (initialTransformation == null && shared != null) ? shared.getInitialTransformation() : initialTransformation;
+    }
+
+    /**
+     * Returns whether the algorithm writes checkpoints from which an interrupted search can
+     * be resumed.
+     *
+     * @return
+     */
+    public boolean isCheckpointSupported() {
+        return false;
+    }
+
+    /**
+     * Returns whether the search has been stopped.
+     *
+     * @return
+     */
+    public boolean isStopped() {
+        return stopped || (shared != null && shared.isStopped());
+    }
+
+    /**
+     * Restores the state of the search from the checkpoint file, if it exists. Must be called
+     * before {@link #traverse()}.
+     *
+     * @return Whether a checkpoint has been restored
+     * @throws IOException If the checkpoint cannot be read or does not match the problem instance
+     */
+    public boolean restore() throws IOException {
+
+        // Check
+        if (checkpointFile == null || !checkpointFile.exists()) {
+            return false;
+        }
+
+        // Read
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(checkpointFile))));
+        try {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != checkpointFingerprint.length) {
+                throw new IOException("Checkpoint does not match the problem instance: " + checkpointFile);
+            }
+            byte[] fingerprint = new byte[checkpointFingerprint.length];
+            in.readFully(fingerprint);
+            if (!Arrays.equals(fingerprint, checkpointFingerprint)) {
+                throw new IOException("Checkpoint does not match the problem instance: " + checkpointFile);
+            }
+            solutionSpace.readCheckpoint(in);
+            long optimum = in.readLong();
+            readCheckpoint(in);
+            if (optimum != -1L) {
+                trackOptimum(solutionSpace.getTransformation(optimum));
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            in.close();
+        }
+        return true;
+    }
+
+    /**
+     * Makes the algorithm periodically write checkpoints to the given file, if supported.
+     *
+     * @param file
+     * @param interval The minimal time between two checkpoints, in milliseconds
+     * @param fingerprint Identifies the problem instance
+     */
+    public void setCheckpoint(File file, long interval, byte[] fingerprint) {
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+        this.checkpointFingerprint = fingerprint;
+        this.checkpointTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Sets a transformation which will be checked first, e.g. the optimum of a previous search
+     * on a similar dataset. If it is a good solution, large parts of the solution space may be
+     * pruned early on, if the utility measure is monotonic.
+     *
+     * @param transformation
+     */
+    public void setInitialTransformation(Transformation transformation) {
+        this.initialTransformation = transformation;
     }
 
     /**
@@ -77,12 +225,68 @@ public abstract class AbstractAlgorithm {
     public void setListener(ARXListener listener) {
         this.listener = listener;
     }
+
+    /**
+     * Sets a listener which is notified about improvements of the global optimum
+     * @param listener
+     */
+    public void setSolutionListener(ARXSolutionListener listener) {
+        this.solutionListener = listener;
+    }
     
+    /**
+     * Requests the search to stop. Algorithms which support this will return from
+     * {@link #traverse()} as soon as possible, with the best solution found so far.
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
     /**
      * Implement this method in order to provide a new algorithm.
      */
     public abstract void traverse();
 
+    /**
+     * Writes a checkpoint, if enabled and if the interval has passed since the last checkpoint.
+     * Must only be called at points at which the search can be resumed from the state of the
+     * solution space and the state written by {@link #writeCheckpoint(ObjectOutputStream)}.
+     * The checkpoint is written to a temporary file first, which then replaces the previous one.
+     */
+    protected void checkpoint() {
+
+        // Check
+        if (checkpointFile == null || isStopped() ||
+            System.currentTimeMillis() - checkpointTime < checkpointInterval) {
+            return;
+        }
+
+        // Write
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temp))));
+            try {
+                Transformation optimum = getGlobalOptimum();
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(checkpointFingerprint.length);
+                out.write(checkpointFingerprint);
+                solutionSpace.writeCheckpoint(out);
+                out.writeLong(optimum != null ? optimum.getIdentifier() : -1L);
+                writeCheckpoint(out);
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(temp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write checkpoint: " + checkpointFile, e);
+        }
+        checkpointTime = System.currentTimeMillis();
+    }
+
     /**
      * Determine information loss of the given node if it can be
      * used for estimating minimum and maximum information
@@ -115,19 +319,75 @@ public abstract class AbstractAlgorithm {
         }
     }
 
+    /**
+     * Restores algorithm-specific state written by {@link #writeCheckpoint(ObjectOutputStream)}.
+     *
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    protected void readCheckpoint(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        // Empty by design
+    }
+
     /**
      * Keeps track of the global optimum.
      *
      * @param transformation
      */
     protected void trackOptimum(Transformation transformation) {
-        if (transformation.hasProperty(solutionSpace.getPropertyAnonymous()) &&
-            ((globalOptimum == null) ||
-             (transformation.getInformationLoss().compareTo(optimalInformationLoss) < 0) ||
-            ((transformation.getInformationLoss().compareTo(optimalInformationLoss) == 0) && (transformation.getLevel() < globalOptimum.getLevel())))) {
-            globalOptimum = transformation;
-            optimalInformationLoss = transformation.getInformationLoss();
+        if (shared != null) {
+            shared.trackOptimum(transformation);
+            return;
+        }
+        ARXSolution solution = null;
+        long number = 0L;
+        synchronized (this) {
+            if (transformation.hasProperty(solutionSpace.getPropertyAnonymous()) &&
+                ((globalOptimum == null) ||
+                 (transformation.getInformationLoss().compareTo(optimalInformationLoss) < 0) ||
+                ((transformation.getInformationLoss().compareTo(optimalInformationLoss) == 0) && (transformation.getLevel() < globalOptimum.getLevel())))) {
+                globalOptimum = transformation;
+                optimalInformationLoss = transformation.getInformationLoss();
+                if (solutionListener != null) {
+                    solution = new ARXSolution(transformation.getGeneralization().clone(),
+                                               optimalInformationLoss.clone(),
+                                               System.currentTimeMillis() - timeStart);
+                    number = ++solutionsFound;
+                }
+            }
         }
+
+        // Notify outside of the lock, to not block other threads while the listener is running.
+        // Solutions which have been superseded in the meantime are skipped.
+        if (solution != null) {
+            synchronized (notificationLock) {
+                if (number > solutionsNotified) {
+                    solutionsNotified = number;
+                    solutionListener.solutionFound(solution);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes algorithm-specific state which is needed to resume the search from a checkpoint.
+     *
+     * @param out
+     * @throws IOException
+     */
+    protected void writeCheckpoint(ObjectOutputStream out) throws IOException {
+        // Empty by design
+    }
+
+    /**
+     * Makes this algorithm share its optimum and its stop flag with the given algorithm,
+     * e.g. when it is executed concurrently with other algorithms.
+     *
+     * @param algorithm
+     */
+    void share(AbstractAlgorithm algorithm) {
+        this.shared = algorithm;
     }
 
 }
@@ -0,0 +1,180 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.Comparator;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+import org.deidentifier.arx.metric.InformationLoss;
+
+/**
+ * Base class for heuristic search algorithms which terminate after a given time limit.
+ * Transformations are checked on demand and skipped if their lower bound shows that they
+ * cannot improve on the best solution found so far.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public abstract class AbstractHeuristicAlgorithm extends AbstractAlgorithm {
+
+    /** Orders transformations by their information loss, unknown values last */
+    protected final Comparator<Transformation> utilityComparator = new Comparator<Transformation>() {
+        @Override
+        public int compare(Transformation o1, Transformation o2) {
+            return compareInformationLoss(o1, o2);
+        }
+    };
+
+    /** Orders anonymous transformations before non-anonymous ones, then by information loss */
+    protected final Comparator<Transformation> fitnessComparator = new Comparator<Transformation>() {
+        @Override
+        public int compare(Transformation o1, Transformation o2) {
+            boolean anonymous1 = o1.hasProperty(solutionSpace.getPropertyAnonymous());
+            boolean anonymous2 = o2.hasProperty(solutionSpace.getPropertyAnonymous());
+            if (anonymous1 != anonymous2) {
+                return anonymous1 ? -1 : +1;
+            }
+            return compareInformationLoss(o1, o2);
+        }
+    };
+
+    /** Time limit */
+    private final int                          timeLimit;
+
+    /** The start time */
+    private long                               timeStart;
+
+    /** Whether the utility measure is monotonic */
+    private final boolean                      monotonic;
+
+    /**
+     * Creates a new instance
+     *
+     * @param space
+     * @param checker
+     * @param timeLimit
+     */
+    protected AbstractHeuristicAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit) {
+        super(space, checker);
+        if (timeLimit <= 0) {
+            throw new IllegalArgumentException("Invalid time limit. Must be greater than zero.");
+        }
+        this.checker.getHistory().setStorageStrategy(StorageStrategy.ALL);
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.timeLimit = timeLimit;
+        this.monotonic = checker.getMetric().isMonotonic(checker.getConfiguration().getMaxOutliers());
+    }
+
+    @Override
+    public void traverse() {
+        this.timeStart = System.currentTimeMillis();
+        if (getInitialTransformation() != null) {
+            evaluate(getInitialTransformation());
+        }
+        this.search();
+    }
+
+    /**
+     * Compares the information loss of two transformations, unknown values last
+     *
+     * @param o1
+     * @param o2
+     * @return
+     */
+    private int compareInformationLoss(Transformation o1, Transformation o2) {
+        InformationLoss<?> loss1 = o1.getInformationLoss();
+        InformationLoss<?> loss2 = o2.getInformationLoss();
+        if (loss1 == null || loss2 == null) {
+            return loss1 == loss2 ? 0 : (loss1 == null ? +1 : -1);
+        }
+        return loss1.compareTo(loss2);
+    }
+
+    /**
+     * Checks the given transformation, if this has not been done before. Returns false,
+     * if the transformation has been pruned instead.
+     *
+     * @param transformation
+     * @return
+     */
+    protected boolean evaluate(Transformation transformation) {
+        if (prune(transformation)) {
+            return false;
+        }
+        if (!transformation.hasProperty(solutionSpace.getPropertyChecked())) {
+            transformation.setChecked(checker.check(transformation, true));
+            trackOptimum(transformation);
+            progress((double) getTime() / (double) timeLimit);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the search must terminate
+     *
+     * @return
+     */
+    protected boolean isTerminated() {
+        return getTime() > timeLimit || isStopped();
+    }
+
+    /**
+     * Returns whether the transformation and its successors cannot improve on the optimum.
+     * This requires a monotonic utility measure.
+     *
+     * @param transformation
+     * @return
+     */
+    protected boolean prune(Transformation transformation) {
+
+        // Check
+        Transformation optimum = getGlobalOptimum();
+        if (!monotonic || optimum == null) {
+            return false;
+        }
+
+        // Obtain lower bound
+        InformationLoss<?> bound = transformation.getLowerBound();
+        if (bound == null && !transformation.hasProperty(solutionSpace.getPropertyChecked())) {
+            bound = checker.getMetric().getLowerBound(transformation);
+            if (bound != null) {
+                transformation.setLowerBound(bound);
+            }
+        }
+
+        // Compare
+        return bound != null && bound.compareTo(optimum.getInformationLoss()) >= 0;
+    }
+
+    /**
+     * Implements the search
+     */
+    protected abstract void search();
+
+    /**
+     * Returns the current execution time
+     *
+     * @return
+     */
+    private int getTime() {
+        return (int) (System.currentTimeMillis() - timeStart);
+    }
+}
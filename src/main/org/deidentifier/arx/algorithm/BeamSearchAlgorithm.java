@@ -0,0 +1,106 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+import cern.colt.list.LongArrayList;
+
+/**
+ * This class implements a beam search, which traverses the solution space level by level,
+ * starting at the bottom. On each level, only the successors of the transformations with
+ * the lowest information loss on the previous level are considered.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class BeamSearchAlgorithm extends AbstractHeuristicAlgorithm {
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           int timeLimit) {
+        return new BeamSearchAlgorithm(solutionSpace, checker, timeLimit);
+    }
+
+    /** The number of transformations expanded per level */
+    private final int width;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param timeLimit
+     */
+    private BeamSearchAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit) {
+        super(space, checker, timeLimit);
+        this.width = Math.max(4, space.getTop().getGeneralization().length);
+    }
+
+    @Override
+    protected void search() {
+
+        // Init
+        Transformation bottom = solutionSpace.getBottom();
+        List<Transformation> beam = new ArrayList<Transformation>();
+        if (evaluate(bottom)) {
+            beam.add(bottom);
+        }
+
+        // For each level
+        while (!beam.isEmpty()) {
+
+            // Collect and check successors
+            List<Transformation> candidates = new ArrayList<Transformation>();
+            Set<Long> visited = new HashSet<Long>();
+            for (Transformation transformation : beam) {
+                LongArrayList successors = transformation.getSuccessors();
+                for (int i = 0; i < successors.size(); i++) {
+                    long id = successors.getQuick(i);
+                    if (visited.add(id)) {
+                        Transformation successor = solutionSpace.getTransformation(id);
+                        if (evaluate(successor)) {
+                            candidates.add(successor);
+                        }
+                    }
+                    if (isTerminated()) {
+                        return;
+                    }
+                }
+            }
+
+            // Select the most promising candidates
+            Collections.sort(candidates, utilityComparator);
+            beam = candidates.size() > width ? candidates.subList(0, width) : candidates;
+        }
+    }
+}
@@ -17,14 +17,19 @@
 
 package org.deidentifier.arx.algorithm;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
 
+import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.algorithm.FLASHPhaseConfiguration.PhaseAnonymityProperty;
 import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.check.NodeCheckerPool;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
 import org.deidentifier.arx.framework.lattice.DependentAction;
 import org.deidentifier.arx.framework.lattice.SolutionSpace;
@@ -37,8 +42,6 @@ import cern.colt.Swapper;
 import cern.colt.function.IntComparator;
 import cern.colt.list.LongArrayList;
 
-import com.carrotsearch.hppc.IntArrayList;
-
 import de.linearbits.jhpl.JHPLIterator.LongIterator;
 import de.linearbits.jhpl.PredictiveProperty;
 
@@ -50,20 +53,32 @@ import de.linearbits.jhpl.PredictiveProperty;
  */
 public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
+    /** The maximal number of cached lists of sorted successors. */
+    private static final int           CACHE_SIZE = 1 << 20;
+
     /** Configuration for the algorithm's phases. */
     protected final FLASHConfiguration config;
 
-    /** Are the pointers for a node with id 'index' already sorted?. */
-    private final int[][]              sortedSuccessors;
+    /** The sorted pointers to the successors of nodes, if already computed. */
+    private final FLASHCache<long[]>   sortedSuccessors;
 
     /** The strategy. */
     private final FLASHStrategy        strategy;
 
     /** List of nodes that may be used for pruning transformations with insufficient utility. */
-    private final List<Integer>        potentiallyInsufficientUtility;
+    private final List<Long>           potentiallyInsufficientUtility;
 
     /** The number of checked transformations */
-    private int                        checked = 0;
+    private int                        checked    = 0;
+
+    /** Pool for checking transformations speculatively, if more than one thread is used */
+    private NodeCheckerPool            pool       = null;
+
+    /** The queue of the binary phase. */
+    private final PriorityQueue<Long>  queue;
+
+    /** The transformations whose successors are currently being visited by the linear phase. */
+    private final LongArrayList        stack      = new LongArrayList();
 
     /**
      * Creates a new instance.
@@ -79,16 +94,19 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                               FLASHConfiguration config) {
 
         super(solutionSpace, checker);
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException();
-        }
         this.checked = 0;
         this.solutionSpace.setAnonymityPropertyPredictable(config.isAnonymityPropertyPredicable());
         this.strategy = strategy;
-        this.sortedSuccessors = new int[(int)solutionSpace.getSize()][];
+        this.sortedSuccessors = new FLASHCache<long[]>(solutionSpace.getSize(), CACHE_SIZE);
         this.config = config;
         this.potentiallyInsufficientUtility = this.config.isPruneInsufficientUtility() ? 
-                                              new LinkedList<Integer>() : null;
+                                              new LinkedList<Long>() : null;
+        this.queue = new PriorityQueue<Long>(solutionSpace.getTop().getLevel() + 1, strategy);
+    }
+
+    @Override
+    public boolean isCheckpointSupported() {
+        return true;
     }
 
     @Override
@@ -106,7 +124,6 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         checker.getHistory().setStorageStrategy(config.getSnapshotStorageStrategy());
 
         // Initialize
-        PriorityQueue<Integer> queue = new PriorityQueue<Integer>(solutionSpace.getTop().getLevel() + 1, strategy);
         Transformation bottom = solutionSpace.getBottom();
         Transformation top = solutionSpace.getTop();
 
@@ -115,18 +132,58 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         bottom.setProperty(solutionSpace.getPropertyForceSnapshot());
         bottom.setData(result);
 
-        // For each node in the lattice
-        for (int level = bottom.getLevel(); level <= top.getLevel(); level++) {
-            for (int id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
+        // Create pool of checkers for speculative checking
+        int threads = checker.getConfiguration().getNumberOfThreads();
+        if (threads > 1) {
+            pool = new NodeCheckerPool(checker, solutionSpace, config.getSnapshotStorageStrategy(), threads);
+        }
 
-                // Run the correct phase
-                Transformation transformation = solutionSpace.getTransformation(id);
-                if (config.isBinaryPhaseRequired()) {
-                    binarySearch(transformation, queue);
-                } else {
-                    linearSearch(transformation);
+        try {
+
+            // Check the initial transformation, if any, to be able to prune early on. This requires
+            // a monotonic utility measure, as its successors will not necessarily be visited.
+            Transformation initial = getInitialTransformation();
+            if (initial != null && !initial.hasProperty(solutionSpace.getPropertyChecked()) &&
+                checker.getConfiguration().getMonotonicityOfUtility() == Monotonicity.FULL) {
+                initial.setChecked(checker.check(initial));
+                trackOptimum(initial);
+            }
+
+            // Resume the phases which have been interrupted when the last checkpoint was written
+            resumeLinearSearch();
+            if (!queue.isEmpty()) {
+                binarySearch();
+            }
+
+            // For each node in the lattice
+            for (int level = bottom.getLevel(); level <= top.getLevel() && !isStopped(); level++) {
+                for (long id : getSortedUnprocessedNodes(level, outerLoopConfiguration.getTriggerSkip())) {
+
+                    // Stop early, if requested
+                    if (isStopped()) {
+                        break;
+                    }
+
+                    // Run the correct phase
+                    Transformation transformation = solutionSpace.getTransformation(id);
+                    if (config.isBinaryPhaseRequired()) {
+                        queue.add(id);
+                        binarySearch();
+                    } else {
+                        linearSearch(transformation);
+                    }
+
+                    // The search can be resumed from here, as both phases have completed
+                    checkpoint();
                 }
             }
+        } finally {
+            
+            // Free resources
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
         }
 
         // Potentially allows to better estimate utility in the lattice
@@ -142,30 +199,65 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }
     }
 
+    @Override
+    protected void readCheckpoint(ObjectInputStream in) throws IOException {
+        this.checked = in.readInt();
+        for (int i = in.readInt(); i > 0; i--) {
+            long id = in.readLong();
+            if (potentiallyInsufficientUtility != null) {
+                potentiallyInsufficientUtility.add(id);
+            }
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            queue.add(in.readLong());
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            stack.add(in.readLong());
+        }
+    }
+
+    @Override
+    protected void writeCheckpoint(ObjectOutputStream out) throws IOException {
+        out.writeInt(checked);
+        if (potentiallyInsufficientUtility != null) {
+            out.writeInt(potentiallyInsufficientUtility.size());
+            for (long id : potentiallyInsufficientUtility) {
+                out.writeLong(id);
+            }
+        } else {
+            out.writeInt(0);
+        }
+        out.writeInt(queue.size());
+        for (long id : queue) {
+            out.writeLong(id);
+        }
+        out.writeInt(stack.size());
+        for (int i = 0; i < stack.size(); i++) {
+            out.writeLong(stack.get(i));
+        }
+    }
+
     /**
-     * Implements the FLASH algorithm (without outer loop).
-     *
-     * @param transformation
-     * @param queue
+     * Implements the FLASH algorithm (without outer loop) for the transformations in the queue.
      */
-    private void binarySearch(Transformation transformation, PriorityQueue<Integer> queue) {
+    private void binarySearch() {
 
         // Obtain node action
         DependentAction triggerSkip = config.getBinaryPhaseConfiguration().getTriggerSkip();
 
-        // Add to queue
-        queue.add((int)transformation.getIdentifier());
-
         // While queue is not empty
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && !isStopped()) {
+
+            // The search can be resumed from here
+            checkpoint();
 
             // Remove head and process
-            transformation = solutionSpace.getTransformation(queue.poll());
+            Transformation transformation = solutionSpace.getTransformation(queue.poll());
             if (!skip(triggerSkip, transformation)) {
 
                 // First phase
                 List<Transformation> path = findPath(transformation, triggerSkip);
-                transformation = checkPath(path, triggerSkip, queue);
+                transformation = checkPath(path, triggerSkip);
 
                 // Second phase
                 if (config.isLinearPhaseRequired() && (transformation != null)) {
@@ -194,7 +286,8 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 transformation.setLowerBound(checker.getMetric().getLowerBound(transformation));
             }
         } else if (configuration.getTriggerCheck().appliesTo(transformation)) {
-            transformation.setChecked(checker.check(transformation));
+            NodeChecker.Result result = pool != null ? pool.get(transformation) : null;
+            transformation.setChecked(result != null ? result : checker.check(transformation));
             progress((double)++checked / (double)solutionSpace.getSize());
         }
 
@@ -213,10 +306,9 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      *
      * @param path The path
      * @param triggerSkip
-     * @param queue
      * @return
      */
-    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip, PriorityQueue<Integer> queue) {
+    private Transformation checkPath(List<Transformation> path, DependentAction triggerSkip) {
 
         // Obtain anonymity property
         PredictiveProperty anonymityProperty = config.getBinaryPhaseConfiguration().getAnonymityProperty() == PhaseAnonymityProperty.ANONYMITY ?
@@ -237,12 +329,23 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Skip
             if (!skip(triggerSkip, transformation)) {
 
+                // Speculatively check the transformations that may be visited next
+                if (pool != null) {
+                    pool.cancel(triggerSkip);
+                    if (low <= mid - 1) {
+                        speculate(path.get((low + mid - 1) / 2), config.getBinaryPhaseConfiguration());
+                    }
+                    if (mid + 1 <= high) {
+                        speculate(path.get((mid + 1 + high) / 2), config.getBinaryPhaseConfiguration());
+                    }
+                }
+
                 // Check and tag
                 checkAndTag(transformation, config.getBinaryPhaseConfiguration());
 
                 // Add nodes to queue
                 if (!transformation.hasProperty(anonymityProperty)) {
-                    for (final int up : getSortedSuccessors(transformation)) {
+                    for (final long up : getSortedSuccessors(transformation)) {
                         if (!skip(triggerSkip, solutionSpace.getTransformation(up))) {
                             queue.add(up);
                         }
@@ -277,7 +380,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         boolean found = true;
         while (found) {
             found = false;
-            for (final int id : getSortedSuccessors(current)) {
+            for (final long id : getSortedSuccessors(current)) {
                 Transformation next = solutionSpace.getTransformation(id);
                 if (!skip(triggerSkip, next)) {
                     current = next;
@@ -295,19 +398,18 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      *
      * @param transformation
      */
-    private int[] getSortedSuccessors(final Transformation transformation) {
+    private long[] getSortedSuccessors(final Transformation transformation) {
         
-        int identifier = (int)transformation.getIdentifier();
-        if (sortedSuccessors[identifier] == null) {
+        long identifier = transformation.getIdentifier();
+        long[] result = sortedSuccessors.get(identifier);
+        if (result == null) {
             LongArrayList list = transformation.getSuccessors();
-            int[] result = new int[list.size()];
-            for (int i=0; i<list.size(); i++) {
-                result[i] = (int)list.getQuick(i);
-            }
+            list.trimToSize();
+            result = list.elements();
             sort(result);
-            sortedSuccessors[identifier] = result;
+            sortedSuccessors.put(identifier, result);
         }
-        return sortedSuccessors[identifier];
+        return result;
     }
 
     /**
@@ -318,20 +420,20 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      * @param triggerSkip The trigger to be used for limiting the number of nodes to be sorted
      * @return A sorted array of nodes remaining on this level
      */
-    private int[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
+    private long[] getSortedUnprocessedNodes(int level, DependentAction triggerSkip) {
 
         // Create
-        IntArrayList list = new IntArrayList();
+        LongArrayList list = new LongArrayList();
         for (LongIterator iter = solutionSpace.unsafeGetLevel(level); iter.hasNext();) {
             long id = iter.next();
             if (!skip(triggerSkip, solutionSpace.getTransformation(id))) {
-                list.add((int)id);
+                list.add(id);
             }            
         }
 
-        // Copy & sort
-        int[] array = new int[list.size()];
-        System.arraycopy(list.buffer, 0, array, 0, list.elementsCount);
+        // Trim & sort
+        list.trimToSize();
+        long[] array = list.elements();
         sort(array);
         return array;
     }
@@ -343,6 +445,11 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
      */
     private void linearSearch(Transformation transformation) {
 
+        // Stop early, if requested
+        if (isStopped()) {
+            return;
+        }
+
         // Obtain node action
         DependentAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
 
@@ -352,19 +459,46 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
             // Check and tag
             checkAndTag(transformation, config.getLinearPhaseConfiguration());
 
-            // DFS
-            for (final int child : getSortedSuccessors(transformation)) {
-                Transformation childTransformation = solutionSpace.getTransformation(child);
-                if (!skip(triggerSkip, childTransformation)) {
-                    linearSearch(childTransformation);
+            // Speculatively check the successors that may be visited next
+            if (pool != null) {
+                pool.cancel(triggerSkip);
+                for (final long child : getSortedSuccessors(transformation)) {
+                    speculate(solutionSpace.getTransformation(child), config.getLinearPhaseConfiguration());
                 }
             }
+
+            // DFS
+            stack.add(transformation.getIdentifier());
+            linearSearchSuccessors(transformation);
+            stack.remove(stack.size() - 1);
         }
 
         // Mark as successors pruned
         transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
     }
 
+    /**
+     * Visits the successors of the given transformation with a depth-first search.
+     *
+     * @param transformation
+     */
+    private void linearSearchSuccessors(Transformation transformation) {
+
+        // Obtain node action
+        DependentAction triggerSkip = config.getLinearPhaseConfiguration().getTriggerSkip();
+
+        // DFS
+        for (final long child : getSortedSuccessors(transformation)) {
+            Transformation childTransformation = solutionSpace.getTransformation(child);
+            if (!skip(triggerSkip, childTransformation)) {
+
+                // The search can be resumed from here, as visited successors will be skipped
+                checkpoint();
+                linearSearch(childTransformation);
+            }
+        }
+    }
+
     /**
      * We may be able to prune some transformations based on weak lower bounds on
      * the monotonic share of a node's information loss.
@@ -393,7 +527,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
         // If we haven't yet found an optimum, we simply add the node to the list of pruning candidates
         if (optimalTransformation == null) {
-            potentiallyInsufficientUtility.add((int)node.getIdentifier());
+            potentiallyInsufficientUtility.add(node.getIdentifier());
             return;
         }
 
@@ -409,16 +543,16 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
                 node.setProperty(solutionSpace.getPropertySuccessorsPruned());
                 // Else, we store it as a future pruning candidate
             } else {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier());
             }
 
             // If the current node is our new optimum, we check all candidates
         } else {
 
             // For each candidate
-            Iterator<Integer> iterator = potentiallyInsufficientUtility.iterator();
+            Iterator<Long> iterator = potentiallyInsufficientUtility.iterator();
             while (iterator.hasNext()) {
-                Integer current = iterator.next();
+                Long current = iterator.next();
 
                 // Remove the candidate, if it was already pruned in the meantime
                 Transformation currentTransformation = solutionSpace.getTransformation(current);
@@ -435,11 +569,24 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
 
             // The current optimum is a future pruning candidate
             if (!node.hasProperty(solutionSpace.getPropertySuccessorsPruned())) {
-                potentiallyInsufficientUtility.add((int)node.getIdentifier());
+                potentiallyInsufficientUtility.add(node.getIdentifier());
             }
         }
     }
 
+    /**
+     * Continues the depth-first searches for the transformations on the stack, which have
+     * been interrupted when the last checkpoint was written.
+     */
+    private void resumeLinearSearch() {
+        while (!stack.isEmpty() && !isStopped()) {
+            Transformation transformation = solutionSpace.getTransformation(stack.get(stack.size() - 1));
+            linearSearchSuccessors(transformation);
+            stack.remove(stack.size() - 1);
+            transformation.setProperty(solutionSpace.getPropertySuccessorsPruned());
+        }
+    }
+
     /**
      * Returns whether a node should be skipped.
      *
@@ -490,12 +637,28 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         return false;
     }
 
+    /**
+     * Submits the given transformation to the pool, if it will be checked when visited
+     * in the given phase. Skipping is only determined based on the phase's trigger, as
+     * pruning must not be triggered for transformations that may never be visited.
+     *
+     * @param transformation
+     * @param configuration
+     */
+    private void speculate(Transformation transformation, FLASHPhaseConfiguration configuration) {
+        if (!configuration.getTriggerSkip().appliesTo(transformation) &&
+            !configuration.getTriggerEvaluate().appliesTo(transformation) &&
+            configuration.getTriggerCheck().appliesTo(transformation)) {
+            pool.submit(transformation);
+        }
+    }
+
     /**
      * Sorts a given array of transformation identifiers.
      * 
      * @param array
      */
-    private void sort(final int[] array) {
+    private void sort(final long[] array) {
         GenericSorting.mergeSort(0, array.length, new IntComparator(){
             @Override
             public int compare(int arg0, int arg1) {
@@ -504,7 +667,7 @@ public class FLASHAlgorithmImpl extends AbstractAlgorithm {
         }, new Swapper(){
             @Override
             public void swap(int arg0, int arg1) {
-                int temp = array[arg0];
+                long temp = array[arg0];
                 array[arg0] = array[arg1];
                 array[arg1] = temp;
             }
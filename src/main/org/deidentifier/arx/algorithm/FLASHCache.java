@@ -0,0 +1,106 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache for values associated with transformations, keyed by their identifiers.
+ * The cache is direct-mapped: each identifier is assigned to exactly one slot and a value
+ * stored for another identifier in the same slot is evicted. If the solution space fits into
+ * the cache, each identifier has its own slot and no values will ever be evicted. Memory
+ * consumption is thus proportional to the minimum of the size of the solution space and
+ * the capacity of the cache, independently of the range of identifiers.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ * @param <T>
+ */
+public class FLASHCache<T> {
+
+    /** Marks empty slots */
+    private static final long EMPTY = -1L;
+
+    /** The identifiers */
+    private final long[]      keys;
+
+    /** The values */
+    private final Object[]    values;
+
+    /** Whether identifiers are used as indices */
+    private final boolean     direct;
+
+    /** The shift for computing indices */
+    private final int         shift;
+
+    /**
+     * Creates a new instance
+     *
+     * @param size The size of the solution space
+     * @param capacity The maximal number of values, a power of two > 1
+     */
+    public FLASHCache(long size, int capacity) {
+
+        // Check
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two > 1");
+        }
+
+        // Init
+        this.direct = size <= capacity;
+        int slots = this.direct ? (int) Math.max(1L, size) : capacity;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        this.keys = new long[slots];
+        this.values = new Object[slots];
+        Arrays.fill(this.keys, EMPTY);
+    }
+
+    /**
+     * Returns the value associated with the given identifier, <code>null</code> if there is none
+     *
+     * @param identifier
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long identifier) {
+        int index = index(identifier);
+        return keys[index] == identifier ? (T) values[index] : null;
+    }
+
+    /**
+     * Associates the value with the given identifier, possibly evicting another value
+     *
+     * @param identifier
+     * @param value
+     */
+    public void put(long identifier, T value) {
+        int index = index(identifier);
+        keys[index] = identifier;
+        values[index] = value;
+    }
+
+    /**
+     * Returns the slot for the given identifier
+     *
+     * @param identifier
+     * @return
+     */
+    private int index(long identifier) {
+        return direct ? (int) identifier : (int) ((identifier * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
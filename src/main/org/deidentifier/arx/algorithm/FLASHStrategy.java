@@ -30,22 +30,25 @@ import org.deidentifier.arx.framework.lattice.Transformation;
  * @author Fabian Prasser
  * @author Florian Kohlmayer
  */
-public class FLASHStrategy implements Comparator<Integer> {
+public class FLASHStrategy implements Comparator<Long> {
+
+    /** The maximal number of cached values. */
+    private static final int           CACHE_SIZE = 1 << 20;
 
     /** The distinct values. */
-    private final int[][]       distinct;
+    private final int[][]              distinct;
 
     /** The maximal level in the lattice. */
-    private final int           maxlevel;
+    private final int                  maxlevel;
 
     /** The maximal level for each quasi-identifier. */
-    private final int[]         maxLevels;
+    private final int[]                maxLevels;
 
     /** The cached values for a node with id 'index'. */
-    private final double[][]    cache;
+    private final FLASHCache<double[]> cache;
 
     /** The solution space */
-    private final SolutionSpace solutionSpace;
+    private final SolutionSpace        solutionSpace;
 
     /**
      * Creates a new instance.
@@ -56,11 +59,6 @@ public class FLASHStrategy implements Comparator<Integer> {
     public FLASHStrategy(final SolutionSpace solutionSpace,
                          final GeneralizationHierarchy[] hierarchies) {
 
-        // Check
-        if (solutionSpace.getSize() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException("Solution space is too large for executing the FLASH algorithm");
-        }
-        
         // Store
         this.solutionSpace = solutionSpace;
         
@@ -80,7 +78,7 @@ public class FLASHStrategy implements Comparator<Integer> {
         }
         
         // Prepare cache
-        this.cache = new double[(int)solutionSpace.getSize()][];
+        this.cache = new FLASHCache<double[]>(solutionSpace.getSize(), CACHE_SIZE);
     }
 
     /**
@@ -93,17 +91,24 @@ public class FLASHStrategy implements Comparator<Integer> {
      * @return the int
      */
     @Override
-    public int compare(final Integer n1, final Integer n2) {
+    public int compare(final Long n1, final Long n2) {
+        return compare(n1.longValue(), n2.longValue());
+    }
+
+    /**
+     * Compares two transformations without boxing their identifiers.
+     *
+     * @param n1
+     *            the n1
+     * @param n2
+     *            the n2
+     * @return the int
+     */
+    public int compare(final long n1, final long n2) {
 
         // Obtain vals
-        if (cache[n1] == null) {
-            cache[n1] = getCriteria(n1);
-        }
-        if (cache[n2] == null) {
-            cache[n2] = getCriteria(n2);
-        }
-        final double[] m1 = cache[n1];
-        final double[] m2 = cache[n2];
+        final double[] m1 = getCachedCriteria(n1);
+        final double[] m2 = getCachedCriteria(n2);
 
         // Compare vals
         if (m1[0] < m2[0]) {
@@ -123,13 +128,28 @@ public class FLASHStrategy implements Comparator<Integer> {
         }
     }
 
+    /**
+     * Returns the criteria for the given transformation, from the cache if possible.
+     *
+     * @param id the id
+     * @return the value
+     */
+    private final double[] getCachedCriteria(final long id) {
+        double[] result = cache.get(id);
+        if (result == null) {
+            result = getCriteria(id);
+            cache.put(id, result);
+        }
+        return result;
+    }
+
     /**
      * Returns the criteria that determines a transformations's position.
      * 
      * @param id the id
      * @return the value
      */
-    private final double[] getCriteria(final int id) {
+    private final double[] getCriteria(final long id) {
         
         // Prepare
         double level = 0;
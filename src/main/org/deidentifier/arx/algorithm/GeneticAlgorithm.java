@@ -0,0 +1,167 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * This class implements a simple genetic algorithm. Individuals are generalization vectors,
+ * which are recombined with uniform crossover and mutated by changing single levels by one.
+ * The fittest individuals of each generation are carried over to the next generation.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class GeneticAlgorithm extends AbstractHeuristicAlgorithm {
+
+    /**
+     * Creates a new instance
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           int timeLimit) {
+        return new GeneticAlgorithm(solutionSpace, checker, timeLimit);
+    }
+
+    /** Seed of the random generator, for reproducible results */
+    private static final long SEED = 0xDEADBEEFL;
+
+    /** The size of the population */
+    private final int         size;
+
+    /** The number of individuals carried over to the next generation */
+    private final int         elite;
+
+    /** The minimal levels */
+    private final int[]       min;
+
+    /** The maximal levels */
+    private final int[]       max;
+
+    /** The random generator */
+    private final Random      random = new Random(SEED);
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param timeLimit
+     */
+    private GeneticAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit) {
+        super(space, checker, timeLimit);
+        this.min = space.getBottom().getGeneralization();
+        this.max = space.getTop().getGeneralization();
+        this.size = Math.max(20, 2 * min.length);
+        this.elite = Math.max(1, size / 5);
+    }
+
+    @Override
+    protected void search() {
+
+        // Init
+        List<Transformation> population = new ArrayList<Transformation>();
+        population.add(solutionSpace.getBottom());
+        population.add(solutionSpace.getTop());
+        while (population.size() < size) {
+            int[] generalization = new int[min.length];
+            for (int i = 0; i < generalization.length; i++) {
+                generalization[i] = min[i] + random.nextInt(max[i] - min[i] + 1);
+            }
+            population.add(solutionSpace.getTransformation(generalization));
+        }
+
+        // Evolve
+        while (true) {
+
+            // Evaluate, moving pruned individuals to the end
+            List<Transformation> fit = new ArrayList<Transformation>();
+            List<Transformation> unfit = new ArrayList<Transformation>();
+            for (Transformation individual : population) {
+                (evaluate(individual) ? fit : unfit).add(individual);
+                if (isTerminated()) {
+                    return;
+                }
+            }
+            Collections.sort(fit, fitnessComparator);
+            fit.addAll(unfit);
+
+            // Select
+            List<Transformation> next = new ArrayList<Transformation>(fit.subList(0, elite));
+            while (next.size() < size) {
+                int[] parent1 = select(fit).getGeneralization();
+                int[] parent2 = select(fit).getGeneralization();
+                next.add(solutionSpace.getTransformation(mutate(crossover(parent1, parent2))));
+            }
+            population = next;
+        }
+    }
+
+    /**
+     * Uniform crossover
+     *
+     * @param parent1
+     * @param parent2
+     * @return
+     */
+    private int[] crossover(int[] parent1, int[] parent2) {
+        int[] child = new int[parent1.length];
+        for (int i = 0; i < child.length; i++) {
+            child[i] = random.nextBoolean() ? parent1[i] : parent2[i];
+        }
+        return child;
+    }
+
+    /**
+     * Changes each level by one with probability 1/dimensions
+     *
+     * @param generalization
+     * @return
+     */
+    private int[] mutate(int[] generalization) {
+        for (int i = 0; i < generalization.length; i++) {
+            if (random.nextInt(generalization.length) == 0) {
+                int level = generalization[i] + (random.nextBoolean() ? 1 : -1);
+                generalization[i] = Math.max(min[i], Math.min(max[i], level));
+            }
+        }
+        return generalization;
+    }
+
+    /**
+     * Tournament selection of size two from a population sorted by fitness
+     *
+     * @param population
+     * @return
+     */
+    private Transformation select(List<Transformation> population) {
+        int index1 = random.nextInt(population.size());
+        int index2 = random.nextInt(population.size());
+        return population.get(Math.min(index1, index2));
+    }
+}
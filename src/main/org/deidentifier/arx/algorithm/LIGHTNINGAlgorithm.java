@@ -92,6 +92,9 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
         });
         Transformation bottom = solutionSpace.getBottom();
         assureChecked(bottom);
+        if (getInitialTransformation() != null) {
+            assureChecked(getInitialTransformation());
+        }
         queue.add(bottom.getIdentifier());
         Transformation next;
         int step = 0;
@@ -105,7 +108,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                 } else {
                     expand(queue, next);
                 }
-                if (getTime() > timeLimit) {
+                if (getTime() > timeLimit || isStopped()) {
                     return;
                 }
             }
@@ -130,7 +133,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
     * @param transformation
     */
     private void dfs(PriorityQueue<Long> queue, Transformation transformation) {
-        if (getTime() > timeLimit) {
+        if (getTime() > timeLimit || isStopped()) {
             return;
         }
         Transformation next = expand(queue, transformation);
@@ -159,7 +162,7 @@ public class LIGHTNINGAlgorithm extends AbstractAlgorithm{
                     result = successor;
                 }
             }
-            if (getTime() > timeLimit) {
+            if (getTime() > timeLimit || isStopped()) {
                 return null;
             }
         }
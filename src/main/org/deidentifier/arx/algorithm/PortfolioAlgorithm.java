@@ -0,0 +1,165 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.deidentifier.arx.framework.check.NodeChecker;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+
+/**
+ * This class executes a portfolio of heuristic search algorithms concurrently: LIGHTNING,
+ * a beam search and a genetic algorithm. LIGHTNING uses the given node checker and the
+ * others use workers derived from it, while the solution space and the best solution found
+ * so far are shared, so that all algorithms can prune transformations based on the solutions
+ * found by the others. The search ends when LIGHTNING terminates or when the time limit is
+ * reached. As all algorithms run under the same time limit, the portfolio is only executed
+ * when there is a processor for each of them. Otherwise LIGHTNING is executed alone, as it
+ * would find worse solutions when sharing a processor with the other algorithms.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class PortfolioAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * Creates a new instance, or an instance of LIGHTNING if there are less processors
+     * than algorithms in the portfolio
+     * @param solutionSpace
+     * @param checker
+     * @param timeLimit
+     * @return
+     */
+    public static AbstractAlgorithm create(SolutionSpace solutionSpace,
+                                           NodeChecker checker,
+                                           int timeLimit) {
+        if (Runtime.getRuntime().availableProcessors() < ALGORITHMS) {
+            return LIGHTNINGAlgorithm.create(solutionSpace, checker, timeLimit);
+        }
+        return new PortfolioAlgorithm(solutionSpace, checker, timeLimit);
+    }
+
+    /** Number of algorithms in the portfolio */
+    private static final int          ALGORITHMS = 3;
+
+    /** Interval in which progress is reported, in milliseconds */
+    private static final int          INTERVAL   = 100;
+
+    /** The algorithms */
+    private final AbstractAlgorithm[] algorithms;
+
+    /** The node checkers used by the beam search and the genetic algorithm */
+    private final NodeChecker[]       workers;
+
+    /** Time limit */
+    private final int                 timeLimit;
+
+    /**
+     * Constructor
+     * @param space
+     * @param checker
+     * @param timeLimit
+     */
+    private PortfolioAlgorithm(SolutionSpace space, NodeChecker checker, int timeLimit) {
+        super(space, checker);
+        if (timeLimit <= 0) {
+            throw new IllegalArgumentException("Invalid time limit. Must be greater than zero.");
+        }
+        this.timeLimit = timeLimit;
+        this.solutionSpace.setAnonymityPropertyPredictable(false);
+        this.workers = checker.createWorkers(ALGORITHMS - 1);
+        this.algorithms = new AbstractAlgorithm[] { LIGHTNINGAlgorithm.create(space, checker, timeLimit),
+                                                    BeamSearchAlgorithm.create(space, workers[0], timeLimit),
+                                                    GeneticAlgorithm.create(space, workers[1], timeLimit) };
+        for (AbstractAlgorithm algorithm : algorithms) {
+            algorithm.share(this);
+        }
+    }
+
+    @Override
+    public void traverse() {
+
+        // Prepare
+        ExecutorService executor = Executors.newFixedThreadPool(algorithms.length, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX Portfolio");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // Execute
+        long timeStart = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final AbstractAlgorithm algorithm : algorithms) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        algorithm.traverse();
+                    }
+                }));
+            }
+
+            // LIGHTNING terminates when it has exhausted the search space or reached the time limit
+            while (true) {
+                try {
+                    futures.get(0).get(INTERVAL, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    progress(Math.min(1d, (double) (System.currentTimeMillis() - timeStart) / (double) timeLimit));
+                }
+            }
+
+            // Stop the others
+            stop();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        } finally {
+            stop();
+            executor.shutdownNow();
+            for (NodeChecker worker : workers) {
+                checker.getHistory().mergeStatistics(worker.getHistory());
+                checker.getStateMachine().mergeStatistics(worker.getStateMachine());
+                worker.reset();
+            }
+        }
+    }
+}
@@ -41,6 +41,9 @@ public class DDisclosurePrivacy extends ExplicitPrivacyCriterion {
     /** Log 2. */
     private static final double LOG2             = Math.log(2);
 
+    /** Relative tolerance of the bounds, to account for rounding errors */
+    private static final double TOLERANCE        = 1e-9d;
+
     /**
      * Computes log 2.
      *
@@ -56,6 +59,12 @@ public class DDisclosurePrivacy extends ExplicitPrivacyCriterion {
 
     /** The original distribution. */
     private double[]            distribution;
+
+    /** Ratios of frequencies below this bound fulfill the criterion, if they are also above the lower bound */
+    private transient double    upper;
+
+    /** Ratios of frequencies above this bound fulfill the criterion, if they are also below the upper bound */
+    private transient double    lower;
     
     /**
      * Creates a new instance
@@ -92,6 +101,8 @@ public class DDisclosurePrivacy extends ExplicitPrivacyCriterion {
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
         distribution = manager.getDistribution(attribute);
+        upper = Math.pow(2d, d) * (1d - TOLERANCE);
+        lower = Math.pow(2d, -d) * (1d + TOLERANCE);
     }
 
     @Override
@@ -111,7 +122,13 @@ public class DDisclosurePrivacy extends ExplicitPrivacyCriterion {
             if (buckets[i] != -1) { // bucket not empty
                 double frequencyInT = distribution[buckets[i]];
                 double frequencyInC = (double) buckets[i + 1] / count;
-                double value = Math.abs(log2(frequencyInC / frequencyInT));
+                double ratio = frequencyInC / frequencyInT;
+                
+                // Only compute the logarithm for ratios close to the bounds
+                if (ratio > lower && ratio < upper) {
+                    continue;
+                }
+                double value = Math.abs(log2(ratio));
                 if (value >= d) {
                     return false;
                 }
@@ -42,6 +42,9 @@ public class EnhancedBLikeness extends ExplicitPrivacyCriterion {
 
     /** The original distribution. */
     private double[]            distribution;
+
+    /** The threshold for each sensitive value: min(beta, -ln(freq(s, t))) */
+    private transient double[]  thresholds;
     
     /**
      * Creates a new instance
@@ -81,6 +84,10 @@ public class EnhancedBLikeness extends ExplicitPrivacyCriterion {
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
         this.distribution = manager.getDistribution(attribute);
+        this.thresholds = new double[distribution.length];
+        for (int i = 0; i < distribution.length; i++) {
+            this.thresholds[i] = Math.min(b, - Math.log(distribution[i]));
+        }
     }
 
     @Override
@@ -101,7 +108,7 @@ public class EnhancedBLikeness extends ExplicitPrivacyCriterion {
                 double frequencyInT = distribution[buckets[i]];
                 double frequencyInC = (double) buckets[i + 1] / count;
                 double value = (frequencyInC - frequencyInT) / frequencyInT;
-                if (value > Math.min(b, - Math.log(frequencyInT))) {
+                if (value > thresholds[buckets[i]]) {
                     return false;
                 }
             }
@@ -20,9 +20,11 @@ package org.deidentifier.arx.criteria;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 
+import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
+import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
 /**
@@ -186,8 +188,17 @@ public class EntropyLDiversity extends LDiversity {
     /**  SVUID */
     private static final long   serialVersionUID = -354688551915634000L;
 
+    /** The maximal number of precomputed values of the logarithm substitute */
+    private static final int    MAX_TABLE_SIZE   = 1 << 16;
+
     /** Entropy estimator to be used */
     private EntropyEstimator estimator;
+
+    /** Precomputed values of the logarithm substitute, indexed by frequency */
+    private transient double[]  psi;
+
+    /** Logarithm of l */
+    private transient double    logL;
     
     /**
      * Creates a new instance of the entropy l-diversity model as proposed in:<br>
@@ -247,6 +258,18 @@ public class EntropyLDiversity extends LDiversity {
 		return estimator;
 	}
 
+    @Override
+    public void initialize(DataManager manager, ARXConfiguration config) {
+        super.initialize(manager, config);
+        
+        // Frequencies are bounded by the number of records
+        this.psi = new double[Math.min(manager.getDataGeneralized().getDataLength() + 1, MAX_TABLE_SIZE)];
+        for (int n = 1; n < this.psi.length; n++) {
+            this.psi[n] = estimator.psi(n);
+        }
+        this.logL = Math.log(l);
+    }
+
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
 
@@ -258,14 +281,14 @@ public class EntropyLDiversity extends LDiversity {
         // Sum of the frequencies in distribution (=number of elements)
         final int total = entry.count;
         // Sum must stay smaller than this constant term
-        final double C = total * (estimator.psi(total) - Math.log(l));
+        final double C = total * (getPsi(total) - logL);
         double sum1 = 0d;
 
         final int[] buckets = d.getBuckets();
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
                 final int frequency = buckets[i + 1];
-                sum1 += frequency * estimator.psi(frequency);
+                sum1 += frequency * getPsi(frequency);
                 // If the sum grows over C, we can abort the loop earlier.
                 if (C < sum1) { return false; }
             }
@@ -294,6 +317,16 @@ public class EntropyLDiversity extends LDiversity {
         return estimator.toString().toLowerCase() + "-entropy-" + l + "-diversity for attribute '" + attribute + "'";
 	}
 
+    /**
+     * Returns the logarithm substitute of the estimator, from the table if possible
+     * 
+     * @param n
+     * @return
+     */
+    private double getPsi(int n) {
+        return n < psi.length ? psi[n] : estimator.psi(n);
+    }
+
     /**
      * Custom de-serialization
      * 
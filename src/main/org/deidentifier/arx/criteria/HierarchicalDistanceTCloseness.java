@@ -47,6 +47,9 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
     /** Internal empty tree. */
     private int[]             empty;
 
+    /** Copies of the internal tree, which are used as scratch space by each thread. */
+    private transient ThreadLocal<int[]> trees;
+
     /**
      * Creates a new instance of the t-closeness criterion with hierarchical earth-movers-distance as proposed in:
      * Li N, Li T, Venkatasubramanian S.
@@ -82,11 +85,21 @@ public class HierarchicalDistanceTCloseness extends TCloseness {
         this.tree = manager.getTree(attribute);
         this.start = this.tree[1] + 3;
         this.empty = new int[this.tree[1]];
+        final int[] template = this.tree;
+        this.trees = new ThreadLocal<int[]>() {
+            @Override
+            protected int[] initialValue() {
+                return template.clone();
+            }
+        };
     }
 
     @Override
     public boolean isAnonymous(Transformation node, HashGroupifyEntry entry) {
         
+        // Obtain scratch space of the current thread
+        final int[] tree = this.trees.get();
+        
         // Empty data in tree
         System.arraycopy(empty, 0, tree, start, empty.length);
 
@@ -17,14 +17,14 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.data.DataManager;
 import org.deidentifier.arx.framework.lattice.Transformation;
 
-import com.carrotsearch.hppc.IntDoubleOpenHashMap;
-
 /**
  * The t-closeness criterion for ordered attributes.
  *
@@ -36,11 +36,14 @@ public class OrderedDistanceTCloseness extends TCloseness {
     /** SVUID */
     private static final long serialVersionUID = -2395544663063577862L;
 
-    /** The original distribution. */
-    private double[]          distribution;
+    /** The position of each value in the order. */
+    private transient int[]    ranks;
+
+    /** The cumulative original distribution, following the order. */
+    private transient double[] cumulative;
 
-    /** The order of the elements. */
-    private int[]             order;
+    /** Prefix sums of the cumulative original distribution. The i-th element is the sum of the first i elements. */
+    private transient double[] sums;
     
     /**
      * Creates a new instance of the t-closeness criterion for ordered attributes as proposed in:
@@ -63,8 +66,22 @@ public class OrderedDistanceTCloseness extends TCloseness {
     @Override
     public void initialize(DataManager manager, ARXConfiguration config) {
         super.initialize(manager, config);
-        this.distribution = manager.getDistribution(attribute);
-        this.order = manager.getOrder(attribute);
+        
+        // Prepare
+        double[] distribution = manager.getDistribution(attribute);
+        int[] order = manager.getOrder(attribute);
+        this.ranks = new int[order.length];
+        this.cumulative = new double[order.length];
+        this.sums = new double[order.length + 1];
+        
+        // Compute prefix sums along the order
+        double sum = 0d;
+        for (int i = 0; i < order.length; i++) {
+            sum += distribution[order[i]];
+            this.ranks[order[i]] = i;
+            this.cumulative[i] = sum;
+            this.sums[i + 1] = this.sums[i] + sum;
+        }
     }
 
     @Override
@@ -74,35 +91,51 @@ public class OrderedDistanceTCloseness extends TCloseness {
         int[] buckets = entry.distributions[index].getBuckets();
         double count = entry.count;
         
-        // Prepare
-        IntDoubleOpenHashMap map = new IntDoubleOpenHashMap(buckets.length/2);
+        // Prepare values of the class, encoded as (rank << 32 | frequency) and sorted by rank
+        long[] values = new long[entry.distributions[index].size()];
+        int size = 0;
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
-                int value = buckets[i];
-                double frequency = ((double) buckets[i + 1] / count);
-                map.put(value, frequency);
+                values[size++] = ((long) ranks[buckets[i]] << 32) | buckets[i + 1];
             }
         }
-        double threshold = t * (order.length - 1d);
+        Arrays.sort(values, 0, size);
+        
+        /* 
+         * Li et al. define the EMD for ordered distance as:
+         * D[P, Q] = 1/(m-1) * SUM_{i=1..m} |SUM_{j=1..i} (p_j - q_j)|
+         * 
+         * With P_i and Q_i denoting the cumulative distributions, the summands are |P_i - Q_i|.
+         * P_i only changes at values contained in the class. Between two such values, it is
+         * constant and the summands can be obtained from prefix sums of Q_i, which is sorted.
+         * 
+         * We thus only compare the distance with t * (m-1) per value contained in the class.
+         */
+        double threshold = t * (cumulative.length - 1d);
         double distance = 0d;
-        double sum_i = 0d;
+        double sum = 0d;
+        int position = 0;
         
         // Calculate and check
-        for (int i=0; i<order.length; i++) {
+        for (int i = 0; i < size; i++) {
             
-            // Compute summands and distance
-            int value = order[i];
-            sum_i += (map.getOrDefault(value, 0d) - distribution[value]);
-            distance += Math.abs(sum_i);
+            // Add distances up to the current value
+            int rank = (int) (values[i] >>> 32);
+            distance += getDistance(sum, position, rank);
             
             // Early abort
             if (distance > threshold) {
                 return false;
             }
+            
+            // Move on
+            sum += (double) ((int) values[i]) / count;
+            position = rank;
         }
         
-        // Yes
-        return true;
+        // Add remaining distances and check
+        distance += getDistance(sum, position, cumulative.length);
+        return distance <= threshold;
     }
 
     @Override
@@ -123,4 +156,35 @@ public class OrderedDistanceTCloseness extends TCloseness {
     public String toString() {
         return t+"-closeness with ordered distance for attribute '"+attribute+"'";
     }
+
+    /**
+     * Returns the sum of |sum - Q_i| for all positions i in [from, to)
+     * 
+     * @param sum
+     * @param from
+     * @param to
+     * @return
+     */
+    private double getDistance(double sum, int from, int to) {
+        
+        // Check
+        if (from >= to) {
+            return 0d;
+        }
+        
+        // Find the first position at which the cumulative distribution exceeds the sum
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= sum) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        
+        // Sum up both parts
+        return sum * (low - from) - (sums[low] - sums[from]) + (sums[to] - sums[low]) - sum * (to - low);
+    }
 }
@@ -17,12 +17,17 @@
 
 package org.deidentifier.arx.criteria;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXPopulationModel;
 import org.deidentifier.arx.ARXSolverConfiguration;
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution;
 import org.deidentifier.arx.framework.data.DataManager;
+import org.deidentifier.arx.risk.RiskModelHistogram;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness;
 import org.deidentifier.arx.risk.RiskModelPopulationUniqueness.PopulationUniquenessModel;
 
@@ -36,6 +41,9 @@ public class PopulationUniqueness extends RiskBasedCriterion {
     /** SVUID */
     private static final long         serialVersionUID = 618039085843721351L;
 
+    /** The maximal number of cached estimates */
+    private static final int          CACHE_SIZE       = 1000;
+
     /** The statistical model */
     private PopulationUniquenessModel statisticalModel;
 
@@ -45,6 +53,9 @@ public class PopulationUniqueness extends RiskBasedCriterion {
     /** The solver config */
     private ARXSolverConfiguration    solverConfig;
 
+    /** Estimates which have been computed during the search, keyed by class size distribution */
+    private transient Map<RiskModelHistogram, Double> cache;
+
     /**
      * Creates a new instance of this criterion. Uses Dankar's method for estimating population uniqueness.
      * This constructor will clone the population model, making further changes to it will not influence
@@ -144,6 +155,11 @@ public class PopulationUniqueness extends RiskBasedCriterion {
         if (this.populationModel != null) {
             this.populationModel.makeBackwardsCompatible(manager.getDataGeneralized().getDataLength());
         }
+        
+        // Estimates depend on the population model
+        synchronized (this) {
+            this.cache = null;
+        }
     }
 
     @Override
@@ -175,22 +191,59 @@ public class PopulationUniqueness extends RiskBasedCriterion {
      */
     protected boolean isFulfilled(HashGroupifyDistribution distribution) {
 
+        double populationUniques = getPopulationUniques(distribution.getHistogram());
+        if (populationUniques > 0d && populationUniques <= getRiskThreshold()) {
+            return true;
+        } else if (populationUniques == 0d && distribution.getFractionOfRecordsInClassesOfSize(1) == 0d) {
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the estimated fraction of population uniques for the given class size distribution.
+     * Transformations and suppression steps resulting in the same distribution are only solved once.
+     * 
+     * @param histogram
+     * @return
+     */
+    private double getPopulationUniques(RiskModelHistogram histogram) {
+
+        // Check cache
+        synchronized (this) {
+            if (this.cache == null) {
+                this.cache = new LinkedHashMap<RiskModelHistogram, Double>(16, 0.75f, true) {
+                    private static final long serialVersionUID = -2380565180767475374L;
+                    @Override
+                    protected boolean removeEldestEntry(Entry<RiskModelHistogram, Double> eldest) {
+                        return size() > CACHE_SIZE;
+                    }
+                };
+            }
+            Double cached = this.cache.get(histogram);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Solve outside of the lock
         RiskModelPopulationUniqueness riskModel = new RiskModelPopulationUniqueness(this.populationModel,
-                                                                                    distribution.getHistogram(),
+                                                                                    histogram,
                                                                                     solverConfig);
-        
         double populationUniques = 0d;
         if (this.statisticalModel == PopulationUniquenessModel.DANKAR) {
             populationUniques = riskModel.getFractionOfUniqueTuplesDankar(false);
         } else {
             populationUniques = riskModel.getFractionOfUniqueTuples(this.statisticalModel);
         }
-        if (populationUniques > 0d && populationUniques <= getRiskThreshold()) {
-            return true;
-        } else if (populationUniques == 0d && distribution.getFractionOfRecordsInClassesOfSize(1) == 0d) {
-            return true;
-        } else {
-            return false;
+        
+        // Store
+        synchronized (this) {
+            if (this.cache != null) {
+                this.cache.put(histogram, populationUniques);
+            }
         }
+        return populationUniques;
     }
 }
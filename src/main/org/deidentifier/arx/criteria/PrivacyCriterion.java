@@ -148,7 +148,9 @@ public abstract class PrivacyCriterion implements Serializable{
     }
     
     /**
-     * Implement this, to enforce the criterion.
+     * Implement this, to enforce the criterion. This method may be called concurrently
+     * by multiple threads, which check transformations in parallel. Implementations
+     * that need scratch space must thus allocate it per thread.
      * @param node TODO
      * @param entry
      *
@@ -17,8 +17,6 @@
 
 package org.deidentifier.arx.criteria;
 
-import java.util.Arrays;
-
 import org.deidentifier.arx.certificate.elements.ElementData;
 import org.deidentifier.arx.framework.check.distribution.Distribution;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
@@ -77,28 +75,37 @@ public class RecursiveCLDiversity extends LDiversity{
         // if less than l values are present skip
         if (d.size() < minSize) { return false; }
 
-        // Copy and pack
+        // Find the l-1 most frequent values and the total frequency, without sorting
         int[] buckets = d.getBuckets();
-        final int[] frequencyCopy = new int[d.size()];
-        int count = 0;
+        final int[] frequent = new int[minSize - 1];
+        long total = 0;
+        int max = 0;
         for (int i = 0; i < buckets.length; i += 2) {
             if (buckets[i] != -1) { // bucket not empty
-                frequencyCopy[count++] = buckets[i + 1];
+                int frequency = buckets[i + 1];
+                total += frequency;
+                max = Math.max(max, frequency);
+                
+                // Insert into descending list of most frequent values
+                int j = frequent.length - 1;
+                if (j >= 0 && frequency > frequent[j]) {
+                    while (j > 0 && frequent[j - 1] < frequency) {
+                        frequent[j] = frequent[j - 1];
+                        j--;
+                    }
+                    frequent[j] = frequency;
+                }
             }
         }
-
-        // Sort
-        Arrays.sort(frequencyCopy);
         
-        // Compute threshold
-        double threshold = 0;
-        for (int i = frequencyCopy.length - minSize; i >= 0; i--) { // minSize=(int)l;
-            threshold += frequencyCopy[i];
+        // Compute threshold from the remaining values
+        for (int i = 0; i < frequent.length; i++) {
+            total -= frequent[i];
         }
-        threshold *= c;
+        double threshold = total * c;
 
         // Check
-        return frequencyCopy[frequencyCopy.length - 1] < threshold;
+        return max < threshold;
     }
     
 	@Override
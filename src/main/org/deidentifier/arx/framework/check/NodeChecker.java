@@ -113,6 +113,9 @@ public class NodeChecker {
     /** The state machine. */
     private final StateMachine                    stateMachine;
 
+    /** The executor for partitions, which is shared with all workers. */
+    private final PartitionExecutor               partitionExecutor;
+
     /** The data transformer. */
     private final Transformer                     transformer;
 
@@ -122,6 +125,18 @@ public class NodeChecker {
     /** Is a minimal class size required */
     private final boolean                         minimalClassSizeRequired;
 
+    /** The data manager */
+    private final DataManager                     manager;
+
+    /** The history max size */
+    private final int                             historyMaxSize;
+
+    /** A history threshold */
+    private final double                          snapshotSizeDataset;
+
+    /** A history threshold */
+    private final double                          snapshotSizeSnapshot;
+
     /**
      * Creates a new NodeChecker instance.
      * 
@@ -140,10 +155,41 @@ public class NodeChecker {
                        final double snapshotSizeDataset,
                        final double snapshotSizeSnapshot,
                        final SolutionSpace solutionSpace) {
+        this(manager,
+             metric,
+             config,
+             historyMaxSize,
+             snapshotSizeDataset,
+             snapshotSizeSnapshot,
+             solutionSpace,
+             new PartitionExecutor(config.getNumberOfPartitions()));
+    }
+
+    /**
+     * Creates a new NodeChecker instance, which uses the given executor for partitions.
+     * 
+     * @param manager The manager
+     * @param metric The metric
+     * @param config The configuration
+     * @param historyMaxSize The history max size
+     * @param snapshotSizeDataset A history threshold
+     * @param snapshotSizeSnapshot A history threshold
+     * @param solutionSpace
+     * @param partitionExecutor
+     */
+    private NodeChecker(final DataManager manager,
+                        final Metric<?> metric,
+                        final ARXConfigurationInternal config,
+                        final int historyMaxSize,
+                        final double snapshotSizeDataset,
+                        final double snapshotSizeSnapshot,
+                        final SolutionSpace solutionSpace,
+                        final PartitionExecutor partitionExecutor) {
         
         // Initialize all operators
         this.metric = metric;
         this.config = config;
+        this.partitionExecutor = partitionExecutor;
         this.dataGeneralized = manager.getDataGeneralized();
         this.microaggregationFunctions = manager.getMicroaggregationFunctions();
         this.microaggregationStartIndex = manager.getMicroaggregationStartIndex();
@@ -152,6 +198,10 @@ public class NodeChecker {
         this.microaggregationHeader = manager.getMicroaggregationHeader();
         this.solutionSpace = solutionSpace;
         this.minimalClassSizeRequired = config.getMinimalGroupSize() != Integer.MAX_VALUE;
+        this.manager = manager;
+        this.historyMaxSize = historyMaxSize;
+        this.snapshotSizeDataset = snapshotSizeDataset;
+        this.snapshotSizeSnapshot = snapshotSizeSnapshot;
         
         int initialSize = (int) (manager.getDataGeneralized().getDataLength() * 0.01d);
         IntArrayDictionary dictionarySensValue;
@@ -175,14 +225,16 @@ public class NodeChecker {
                                    solutionSpace);
         
         this.stateMachine = new StateMachine(history);
-        this.currentGroupify = new HashGroupify(initialSize, config);
-        this.lastGroupify = new HashGroupify(initialSize, config);
+        this.currentGroupify = new HashGroupify(initialSize, config, metric);
+        this.lastGroupify = new HashGroupify(initialSize, config, metric);
         this.transformer = new Transformer(manager.getDataGeneralized().getArray(),
                                            manager.getDataAnalyzed().getArray(),
                                            manager.getHierarchies(),
                                            config,
+                                           metric,
                                            dictionarySensValue,
-                                           dictionarySensFreq);
+                                           dictionarySensFreq,
+                                           partitionExecutor);
     }
 
     
@@ -276,7 +328,7 @@ public class NodeChecker {
         }
         
         // Transition
-        final Transition transition = stateMachine.transition(node.getGeneralization());
+        final Transition transition = stateMachine.transition(node.getGeneralization(), currentGroupify.getNumberOfEquivalenceClasses());
         
         // Switch groupifies
         final HashGroupify temp = lastGroupify;
@@ -315,6 +367,62 @@ public class NodeChecker {
                                       bound);
     }
     
+    /**
+     * Creates the given number of workers, which share the data, configuration and solution
+     * space with this checker, but use their own transformer, groupify operators, history and
+     * copy of the utility measure, as utility measures are not thread-safe. Workers can be used
+     * to check transformations concurrently. The memory limit and the spill limit of the history
+     * are divided evenly between this checker and the workers, so that the overall limits are
+     * retained. The executor for partitions is shared as well, and the number of its threads
+     * is adjusted to the number of checkers.
+     * 
+     * @param count
+     * @return
+     */
+    public NodeChecker[] createWorkers(int count) {
+        
+        // Check
+        if (count <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+        
+        // Divide budget
+        long memoryLimit = Math.max(1L, history.getMemoryLimit() / (count + 1));
+        long spillLimit = Math.max(1L, history.getSpillLimit() / (count + 1));
+        history.setMemoryLimit(memoryLimit);
+        history.setSpillLimit(spillLimit);
+        partitionExecutor.setNumberOfCheckers(count + 1);
+        
+        // Create
+        NodeChecker[] workers = new NodeChecker[count];
+        for (int i = 0; i < count; i++) {
+            workers[i] = createWorker();
+        }
+        return workers;
+    }
+    
+    /**
+     * Creates a new worker with the same history settings as this checker
+     * 
+     * @return
+     */
+    private NodeChecker createWorker() {
+        Metric<?> metric = this.metric.clone();
+        config.initializeQualityModel(metric, manager);
+        NodeChecker worker = new NodeChecker(manager,
+                                             metric,
+                                             config,
+                                             historyMaxSize,
+                                             snapshotSizeDataset,
+                                             snapshotSizeSnapshot,
+                                             solutionSpace,
+                                             partitionExecutor);
+        worker.getHistory().setMemoryLimit(history.getMemoryLimit());
+        worker.getHistory().setSpillDirectory(history.getSpillDirectory());
+        worker.getHistory().setSpillLimit(history.getSpillLimit());
+        return worker;
+    }
+
     /**
      * Returns the configuration
      * @return
@@ -332,6 +440,14 @@ public class NodeChecker {
         return history;
     }
     
+    /**
+     * Returns the state machine
+     * @return
+     */
+    public StateMachine getStateMachine() {
+        return stateMachine;
+    }
+
     /**
      * Returns the input buffer
      * @return
@@ -357,5 +473,6 @@ public class NodeChecker {
         history.setSize(0);
         currentGroupify.stateClear();
         lastGroupify.stateClear();
+        partitionExecutor.shutdown();
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.deidentifier.arx.framework.check.history.History.StorageStrategy;
+import org.deidentifier.arx.framework.lattice.DependentAction;
+import org.deidentifier.arx.framework.lattice.SolutionSpace;
+import org.deidentifier.arx.framework.lattice.Transformation;
+
+/**
+ * A pool of node checkers which speculatively checks transformations in background threads.
+ * Algorithms submit transformations that they are likely to check next and later ask the
+ * pool for the according results. Results are only returned and never written into the
+ * solution space, which means that all tagging is still performed by the calling thread
+ * and the search behaves exactly as a sequential search.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class NodeCheckerPool {
+
+    /**
+     * A pending check
+     */
+    private static class PendingCheck {
+
+        /** The transformation */
+        private final Transformation             transformation;
+
+        /** The future */
+        private final Future<NodeChecker.Result> future;
+
+        /**
+         * Creates a new instance
+         * @param transformation
+         * @param future
+         */
+        private PendingCheck(Transformation transformation, Future<NodeChecker.Result> future) {
+            this.transformation = transformation;
+            this.future = future;
+        }
+    }
+
+    /** The executor */
+    private final ExecutorService                executor;
+
+    /** The idle workers */
+    private final BlockingQueue<NodeChecker>     workers;
+
+    /** The pending checks */
+    private final Map<Long, PendingCheck>        pending;
+
+    /** The maximal number of pending checks */
+    private final int                            maxPending;
+
+    /** The solution space */
+    private final SolutionSpace                  solutionSpace;
+
+    /** The checker from which the workers have been derived */
+    private final NodeChecker                    checker;
+
+    /**
+     * Creates a new instance
+     *
+     * @param checker The checker from which workers will be derived
+     * @param solutionSpace The solution space
+     * @param strategy The storage strategy for the workers' histories
+     * @param threads The number of threads
+     */
+    public NodeCheckerPool(NodeChecker checker,
+                           SolutionSpace solutionSpace,
+                           StorageStrategy strategy,
+                           int threads) {
+
+        // Check
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+
+        // Init
+        this.solutionSpace = solutionSpace;
+        this.checker = checker;
+        this.maxPending = 2 * threads;
+        this.pending = new LinkedHashMap<Long, PendingCheck>();
+        this.workers = new ArrayBlockingQueue<NodeChecker>(threads);
+        for (NodeChecker worker : checker.createWorkers(threads)) {
+            worker.getHistory().setStorageStrategy(strategy);
+            this.workers.add(worker);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX NodeChecker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Cancels all pending checks of transformations which have already been checked or
+     * to which the given trigger applies.
+     *
+     * @param trigger
+     */
+    public void cancel(DependentAction trigger) {
+        Iterator<Entry<Long, PendingCheck>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingCheck check = iterator.next().getValue();
+            if (check.transformation.hasProperty(solutionSpace.getPropertyChecked()) ||
+                trigger.appliesTo(check.transformation)) {
+                check.future.cancel(false);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the result of a previously submitted check of the given transformation, waiting
+     * for it if required. Returns <code>null</code> if no check has been submitted or if the
+     * check has not been started yet.
+     *
+     * @param transformation
+     * @return
+     */
+    public NodeChecker.Result get(Transformation transformation) {
+
+        // Check
+        PendingCheck check = pending.remove(transformation.getIdentifier());
+        if (check == null) {
+            return null;
+        }
+
+        // If the check has not been started yet, the caller is better off performing it
+        if (check.future.cancel(false)) {
+            return null;
+        }
+
+        // Wait
+        try {
+            return check.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Shuts down the pool and frees all resources
+     */
+    public void shutdown() {
+        for (PendingCheck check : pending.values()) {
+            check.future.cancel(false);
+        }
+        pending.clear();
+        executor.shutdownNow();
+        for (NodeChecker worker : workers) {
+            checker.getHistory().mergeStatistics(worker.getHistory());
+            checker.getStateMachine().mergeStatistics(worker.getStateMachine());
+            worker.reset();
+        }
+        workers.clear();
+    }
+
+    /**
+     * Submits the given transformation for being checked in the background. Has no effect if
+     * the transformation has already been submitted. If too many checks are pending, the
+     * oldest one is cancelled.
+     *
+     * @param transformation
+     */
+    public void submit(final Transformation transformation) {
+
+        // Check
+        if (pending.containsKey(transformation.getIdentifier())) {
+            return;
+        }
+
+        // Make room
+        if (pending.size() >= maxPending) {
+            Iterator<PendingCheck> iterator = pending.values().iterator();
+            iterator.next().future.cancel(false);
+            iterator.remove();
+        }
+
+        // Initialize lazily computed fields before handing the object over
+        transformation.getGeneralization();
+        transformation.getLevel();
+
+        // Submit
+        Future<NodeChecker.Result> future = executor.submit(new Callable<NodeChecker.Result>() {
+            @Override
+            public NodeChecker.Result call() throws Exception {
+                NodeChecker worker = workers.take();
+                try {
+                    return worker.check(transformation);
+                } finally {
+                    workers.add(worker);
+                }
+            }
+        });
+        pending.put(transformation.getIdentifier(), new PendingCheck(transformation, future));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the partitions of transformations for a node checker and all of its workers.
+ * The threads are created on demand. Their number is limited, so that the threads which
+ * check transformations and the threads which process partitions together do not exceed
+ * the number of available processors. If no processor is left, partitions are processed
+ * by the calling thread.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class PartitionExecutor {
+
+    /** The number of partitions */
+    private final int          partitions;
+
+    /** The number of threads which check transformations */
+    private int                checkers = 1;
+
+    /** The executor, if any */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new instance
+     *
+     * @param partitions
+     */
+    public PartitionExecutor(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Sets the number of threads which check transformations and submit partitions
+     *
+     * @param checkers
+     */
+    public synchronized void setNumberOfCheckers(int checkers) {
+        this.checkers = checkers;
+    }
+
+    /**
+     * Frees all threads and resets the number of threads which check transformations
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        checkers = 1;
+    }
+
+    /**
+     * Submits the given partition
+     *
+     * @param partition
+     * @return
+     */
+    public <T> Future<T> submit(Callable<T> partition) {
+        
+        // Process in the calling thread
+        ThreadPoolExecutor pool = getExecutor();
+        if (pool == null) {
+            FutureTask<T> task = new FutureTask<T>(partition);
+            task.run();
+            return task;
+        }
+        
+        // Process in the background
+        return pool.submit(partition);
+    }
+
+    /**
+     * Returns the executor with the number of threads which is currently available,
+     * <code>null</code> if there are none
+     *
+     * @return
+     */
+    private synchronized ThreadPoolExecutor getExecutor() {
+        
+        // Check
+        int threads = getNumberOfThreads();
+        if (threads == 0) {
+            return null;
+        }
+        
+        // Create
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ARX Transformer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            
+        // Resize
+        } else if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        return executor;
+    }
+
+    /**
+     * Returns the number of threads to use
+     *
+     * @return
+     */
+    private int getNumberOfThreads() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Math.max(0, Math.min(checkers * (partitions - 1), processors - checkers));
+    }
+}
@@ -22,7 +22,9 @@ import org.deidentifier.arx.framework.check.history.History;
 /**
  * This class implements a state machine, which determines which optimizations
  * can be applied to the current transition depending on the previous
- * transition.
+ * transition. If several sources are available, the one with the smallest
+ * number of equivalence classes is chosen, as the effort of a transition is
+ * proportional to the number of classes or rows that need to be processed.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -74,11 +76,17 @@ public class StateMachine {
     /** The last transition, which has been performed. */
     private Transition lastTransition;
 
-    /** The current snapshot, if any. */
-    private int[]      snapshot = null;
+    /** The number of classes in the current snapshot, -1 if there is none. */
+    private int        snapshotClasses = -1;
 
-    /** The node for the current snapshot. */
-    private int[]      snapshotNode;
+    /** Number of transitions which have been performed without optimization. */
+    private long       numUnoptimized;
+
+    /** Number of transitions which have been performed with the roll-up optimization. */
+    private long       numRollups;
+
+    /** Number of transitions which have been performed with the snapshot optimization. */
+    private long       numSnapshots;
 
     /**
      * Instantiates a new state machine.
@@ -92,6 +100,33 @@ public class StateMachine {
         this.history = history;
     }
 
+    /**
+     * Returns the number of transitions which have been performed with the roll-up optimization.
+     *
+     * @return
+     */
+    public long getNumberOfRollups() {
+        return numRollups;
+    }
+
+    /**
+     * Returns the number of transitions which have been performed with the snapshot optimization.
+     *
+     * @return
+     */
+    public long getNumberOfSnapshots() {
+        return numSnapshots;
+    }
+
+    /**
+     * Returns the number of transitions which have been performed without optimization.
+     *
+     * @return
+     */
+    public long getNumberOfUnoptimizedTransitions() {
+        return numUnoptimized;
+    }
+
     /**
      * Returns the last node.
      *
@@ -111,7 +146,18 @@ public class StateMachine {
     }
 
     /**
-     * Resets the state machine.
+     * Adds the statistics collected by the given state machine to the statistics of this state machine.
+     *
+     * @param other
+     */
+    public void mergeStatistics(StateMachine other) {
+        this.numUnoptimized += other.numUnoptimized;
+        this.numRollups += other.numRollups;
+        this.numSnapshots += other.numSnapshots;
+    }
+
+    /**
+     * Resets the state machine. Statistics are retained.
      */
     public void reset() {
         lastNode = null;
@@ -122,9 +168,10 @@ public class StateMachine {
      * Computes the best state transition.
      * 
      * @param currentNode the current node
+     * @param lastClasses the number of equivalence classes produced by the last transition
      * @return the transition
      */
-    public Transition transition(final int[] currentNode) {
+    public Transition transition(final int[] currentNode, final int lastClasses) {
 
         final Transition result = new Transition();
 
@@ -134,13 +181,20 @@ public class StateMachine {
             result.projection = 0L;
             result.snapshot = null;
         } else {
+            // Choose the source with the fewest classes. Ties are resolved in favor of snapshots.
+            boolean possibleSnapshot = isPossibleSnapshot(currentNode);
+            boolean possibleRollup = isPossibleRollup(currentNode);
+            if (possibleSnapshot && possibleRollup && snapshotClasses > lastClasses) {
+                history.discard();
+                possibleSnapshot = false;
+            }
             switch (lastTransition.type) {
             case UNOPTIMIZED:
                 result.projection = getProjection(currentNode);
-                if (isPossibleSnapshot(currentNode)) {
+                if (possibleSnapshot) {
                     result.type = TransitionType.SNAPSHOT;
-                    result.snapshot = snapshot;
-                } else if (isPossibleRollup(currentNode)) {
+                    result.snapshot = history.get();
+                } else if (possibleRollup) {
                     result.type = TransitionType.ROLLUP;
                     result.snapshot = null;
                 } else {
@@ -150,11 +204,11 @@ public class StateMachine {
                 break;
             case ROLLUP:
             case SNAPSHOT:
-                if (isPossibleSnapshot(currentNode)) {
-                    result.projection = isPredecessor(snapshotNode, lastNode) ? getProjection(currentNode) : 0L;
+                if (possibleSnapshot) {
+                    result.snapshot = history.get();
+                    result.projection = isPredecessor(history.getTransformation(), lastNode) ? getProjection(currentNode) : 0L;
                     result.type = TransitionType.SNAPSHOT;
-                    result.snapshot = snapshot;
-                } else if (isPossibleRollup(currentNode)) {
+                } else if (possibleRollup) {
                     result.projection = getProjection(currentNode);
                     result.type = TransitionType.ROLLUP;
                     result.snapshot = null;
@@ -167,6 +221,19 @@ public class StateMachine {
             }
         }
 
+        // Statistics
+        switch (result.type) {
+        case UNOPTIMIZED:
+            numUnoptimized++;
+            break;
+        case ROLLUP:
+            numRollups++;
+            break;
+        case SNAPSHOT:
+            numSnapshots++;
+            break;
+        }
+
         // Store
         lastNode = currentNode;
         lastTransition = result;
@@ -207,15 +274,15 @@ public class StateMachine {
     }
 
     /**
-     * Is a snapshot optimization possible.
+     * Is a snapshot optimization possible. The snapshot is only looked up, it
+     * is retrieved from the history once the transition has been chosen.
      * 
      * @param currentNode the current node
      * @return true, if is possible snapshot
      */
     private boolean isPossibleSnapshot(final int[] currentNode) {
-        snapshot = history.get(currentNode);
-        snapshotNode = history.getTransformation();
-        if (snapshot != null) { return true; }
+        snapshotClasses = history.find(currentNode);
+        if (snapshotClasses != -1) { return true; }
         return false;
     }
 
@@ -17,11 +17,17 @@
 
 package org.deidentifier.arx.framework.check;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.CompressedSnapshot;
 import org.deidentifier.arx.framework.check.transformer.AbstractTransformer;
 import org.deidentifier.arx.framework.check.transformer.Transformer01;
 import org.deidentifier.arx.framework.check.transformer.Transformer02;
@@ -40,6 +46,7 @@ import org.deidentifier.arx.framework.check.transformer.Transformer14;
 import org.deidentifier.arx.framework.check.transformer.Transformer15;
 import org.deidentifier.arx.framework.check.transformer.TransformerAll;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
+import org.deidentifier.arx.metric.Metric;
 
 /**
  * The class Transformer.
@@ -49,9 +56,15 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public class Transformer {
 
+    /** The minimal number of rows per partition */
+    private static final int                   MIN_PARTITION_SIZE = 10000;
+
     /** The config. */
     protected final ARXConfigurationInternal   config;
 
+    /** The utility measure of the owning node checker. */
+    protected final Metric<?>                  metric;
+
     /** The dictionary for the snapshot compression *. */
     protected IntArrayDictionary               dictionarySensFreq;
 
@@ -76,6 +89,18 @@ public class Transformer {
     /** The buffer. */
     protected int[][]                          outputGeneralized;
 
+    /** The number of partitions. */
+    protected final int                        partitions;
+
+    /** The instances for the additional partitions, if any. */
+    protected AbstractTransformer[][]          partitionInstances;
+
+    /** The groupify operators for the additional partitions, if any. */
+    protected HashGroupify[]                   partitionGroupifies;
+
+    /** The executor for the additional partitions, which is shared with other transformers. */
+    protected final PartitionExecutor          partitionExecutor;
+
     /**
      * Instantiates a new transformer.
      *
@@ -83,20 +108,25 @@ public class Transformer {
      * @param inputAnalyzed
      * @param hierarchies
      * @param config
+     * @param metric
      * @param dictionarySensValue
      * @param dictionarySensFreq
+     * @param partitionExecutor
      */
     public Transformer(final int[][] inputGeneralized,
                        final int[][] inputAnalyzed,
                        final GeneralizationHierarchy[] hierarchies,
                        final ARXConfigurationInternal config,
+                       final Metric<?> metric,
                        final IntArrayDictionary dictionarySensValue,
-                       final IntArrayDictionary dictionarySensFreq) {
+                       final IntArrayDictionary dictionarySensFreq,
+                       final PartitionExecutor partitionExecutor) {
 
         this.config = config;
+        this.metric = metric;
+        this.partitionExecutor = partitionExecutor;
         this.inputGeneralized = inputGeneralized;
         this.hierarchies = hierarchies;
-        this.instances = new AbstractTransformer[16];
         this.outputGeneralized = new int[inputGeneralized.length][];
         
         for (int i = 0; i < inputGeneralized.length; i++) {
@@ -107,8 +137,9 @@ public class Transformer {
         this.dictionarySensValue = dictionarySensValue;
         this.dictionarySensFreq = dictionarySensFreq;
         this.inputAnalyzed = inputAnalyzed;
+        this.partitions = Math.max(1, Math.min(config.getNumberOfPartitions(), inputGeneralized.length / MIN_PARTITION_SIZE));
 
-        buildApplicators();
+        this.instances = buildApplicators();
     }
 
     /**
@@ -194,8 +225,11 @@ public class Transformer {
 
     /**
      * Builds the applicators.
+     * 
+     * @return
      */
-    private void buildApplicators() {
+    private AbstractTransformer[] buildApplicators() {
+        AbstractTransformer[] instances = new AbstractTransformer[16];
         instances[15] = new Transformer15(inputGeneralized,
                                           hierarchies,
                                           inputAnalyzed,
@@ -292,6 +326,103 @@ public class Transformer {
                                           dictionarySensValue,
                                           dictionarySensFreq,
                                           config);
+        return instances;
+    }
+
+    /**
+     * Applies the given applicator to the given range of rows or snapshot entries. The range
+     * is split into partitions, which are processed concurrently, using additional applicators 
+     * and groupify operators. The resulting groupify operators are then merged into the target
+     * in the order of the partitions.
+     * 
+     * @param index
+     * @param app
+     * @param projection
+     * @param state
+     * @param target
+     * @param snapshot
+     * @param transition
+     * @param startIndex
+     * @param stopIndex
+     * @return
+     */
+    private HashGroupify applyPartitioned(final int index,
+                                          final AbstractTransformer app,
+                                          final long projection,
+                                          final int[] state,
+                                          final HashGroupify target,
+                                          final int[] snapshot,
+                                          final TransitionType transition,
+                                          final int startIndex,
+                                          final int stopIndex) {
+
+        // Prepare
+        if (partitionInstances == null) {
+            partitionInstances = new AbstractTransformer[partitions - 1][];
+            partitionGroupifies = new HashGroupify[partitions - 1];
+            int initialSize = (int) (inputGeneralized.length * 0.01d / partitions);
+            for (int i = 0; i < partitions - 1; i++) {
+                partitionInstances[i] = buildApplicators();
+                partitionGroupifies[i] = new HashGroupify(initialSize, config, metric);
+            }
+        }
+
+        // Submit all but the first partition
+        int size = (stopIndex - startIndex) / partitions;
+        List<Future<HashGroupify>> futures = new ArrayList<Future<HashGroupify>>();
+        for (int i = 0; i < partitions - 1; i++) {
+            int start = startIndex + size * (i + 1);
+            int stop = (i == partitions - 2) ? stopIndex : start + size;
+            AbstractTransformer partition = partitionInstances[i][index];
+            partition.init(projection,
+                           state,
+                           partitionGroupifies[i],
+                           null,
+                           snapshot,
+                           transition,
+                           start,
+                           stop,
+                           0,
+                           null,
+                           outputGeneralized);
+            futures.add(partitionExecutor.submit(partition));
+        }
+
+        // Process first partition
+        app.init(projection,
+                 state,
+                 target,
+                 null,
+                 snapshot,
+                 transition,
+                 startIndex,
+                 startIndex + size,
+                 0,
+                 null,
+                 outputGeneralized);
+        HashGroupify result = app.call();
+
+        // Merge
+        for (int i = 0; i < partitions - 1; i++) {
+            HashGroupify partition;
+            try {
+                partition = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                } else {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            result.stateMerge(partition);
+            partition.stateClear();
+        }
+        return result;
     }
 
     /**
@@ -337,8 +468,12 @@ public class Transformer {
             break;
         case SNAPSHOT:
             startIndex = 0;
-            stopIndex = snapshot.length /
-                        config.getSnapshotLength();
+            if (config.isUseCompressedSnapshots()) {
+                stopIndex = CompressedSnapshot.getNumberOfClasses(snapshot);
+            } else {
+                stopIndex = snapshot.length /
+                            config.getSnapshotLength();
+            }
             break;
         }
 
@@ -346,6 +481,11 @@ public class Transformer {
 
         app = getApplicator(projection);
         
+        // Partition rows or snapshot entries, if the dataset is large enough
+        if (partitions > 1 && transition != TransitionType.ROLLUP && stopIndex - startIndex >= partitions * MIN_PARTITION_SIZE) {
+            return applyPartitioned(getApplicatorIndex(projection), app, projection, state, target, snapshot, transition, startIndex, stopIndex);
+        }
+        
         app.init(projection,
                  state,
                  target,
@@ -368,11 +508,21 @@ public class Transformer {
      * @return the applicator
      */
     protected AbstractTransformer getApplicator(final long projection) {
+        return instances[getApplicatorIndex(projection)];
+    }
+
+    /**
+     * Gets the index of the applicator.
+     * 
+     * @param projection the projection
+     * @return the index
+     */
+    protected int getApplicatorIndex(final long projection) {
         final int index = dimensions - Long.bitCount(projection);
         if (index > (instances.length - 1)) {
-            return instances[0];
+            return 0;
         } else {
-            return instances[index];
+            return index;
         }
     }
 }
@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check.groupify;
 
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration.ARXConfigurationInternal;
 import org.deidentifier.arx.RowSet;
 import org.deidentifier.arx.criteria.DPresence;
@@ -34,7 +36,9 @@ import com.carrotsearch.hppc.ObjectIntOpenHashMap;
 
 /**
  * A hash groupify operator. It implements a hash table with chaining and keeps
- * track of additional properties per equivalence class
+ * track of additional properties per equivalence class. Alternatively, the table
+ * can be implemented with open addressing and linear probing over primitive arrays,
+ * in which case entries are reused after the operator has been cleared.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -88,6 +92,18 @@ public class HashGroupify {
     
     /** Allowed tuple outliers. */
     private final int                    suppressionLimit;
+
+    /** Is the table implemented with open addressing. */
+    private final boolean                openAddressing;
+
+    /** Open addressing: index of the entry in each slot plus one, zero if empty. */
+    private int[]                        openAddressingSlots;
+
+    /** Open addressing: hash code of the entry in each slot. */
+    private int[]                        openAddressingHashes;
+
+    /** Open addressing: entries in the order of their creation, reused after clearing. */
+    private HashGroupifyEntry[]          openAddressingEntries;
     
     /** Utility measure */
     private final Metric<?>              utilityMeasure;
@@ -99,17 +115,35 @@ public class HashGroupify {
      * @param config The config
      */
     public HashGroupify(int capacity, final ARXConfigurationInternal config) {
+        this(capacity, config, config.getQualityModel());
+    }
+    
+    /**
+     * Constructs a new hash groupify operator, which uses the given instance of the utility measure.
+     *
+     * @param capacity The capacity
+     * @param config The config
+     * @param utilityMeasure The utility measure
+     */
+    public HashGroupify(int capacity, final ARXConfigurationInternal config, final Metric<?> utilityMeasure) {
         
         // Set capacity
         capacity = HashTableUtil.calculateCapacity(capacity);
         this.hashTableElementCount = 0;
-        this.hashTableBuckets = new HashGroupifyEntry[capacity];
-        this.hashTableThreshold = HashTableUtil.calculateThreshold(hashTableBuckets.length, hashTableLoadFactor);
+        this.openAddressing = config.isUseOpenAddressingForGroupify();
+        if (this.openAddressing) {
+            this.openAddressingSlots = new int[capacity];
+            this.openAddressingHashes = new int[capacity];
+            this.openAddressingEntries = new HashGroupifyEntry[capacity];
+        } else {
+            this.hashTableBuckets = new HashGroupifyEntry[capacity];
+        }
+        this.hashTableThreshold = HashTableUtil.calculateThreshold(capacity, hashTableLoadFactor);
         
         // Set params
         this.currentNumOutliers = 0;
         this.suppressionLimit = config.getAbsoluteMaxOutliers();
-        this.utilityMeasure = config.getQualityModel();
+        this.utilityMeasure = utilityMeasure;
         this.heuristicForSampleBasedCriteria = config.isUseHeuristicForSampleBasedCriteria();
         
         // Extract research subset
@@ -241,9 +275,7 @@ public class HashGroupify {
      * @return
      */
     public HashGroupifyEntry getEntry(int[] tuple) {
-        final int hash = HashTableUtil.hashcode(tuple);
-        int index = hash & (hashTableBuckets.length - 1);
-        return findEntry(tuple, index, hash);
+        return findEntry(tuple, HashTableUtil.hashcode(tuple));
     }
     
     /**
@@ -305,12 +337,7 @@ public class HashGroupify {
         for (int row = 0; row < data.length; row++) {
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
                 final int[] key = data[row];
-                final int hash = HashTableUtil.hashcode(key);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !equalsIgnoringOutliers(key, m.key))) {
-                    m = m.next;
-                }
+                HashGroupifyEntry m = findEntryIgnoringOutliers(key, HashTableUtil.hashcode(key));
                 if (m == null) { throw new RuntimeException("Invalid state! Groupify the data before microaggregation!"); }
                 int dimension = 0;
                 result.getArray()[row] = new int[num];
@@ -342,12 +369,7 @@ public class HashGroupify {
         for (int row = 0; row < data.length; row++) {
             final int[] key = data[row];
             if (privacyModelDefinesSubset == null || privacyModelDefinesSubset.contains(row)) {
-                final int hash = HashTableUtil.hashcode(key);
-                final int index = hash & (hashTableBuckets.length - 1);
-                HashGroupifyEntry m = hashTableBuckets[index];
-                while ((m != null) && ((m.hashcode != hash) || !equalsIgnoringOutliers(key, m.key))) {
-                    m = m.next;
-                }
+                HashGroupifyEntry m = findEntryIgnoringOutliers(key, HashTableUtil.hashcode(key));
                 if (m == null) {
                     throw new RuntimeException("Invalid state! Groupify the data before marking outliers!");
                 }
@@ -379,10 +401,29 @@ public class HashGroupify {
             this.currentNumOutliers = 0;
             this.hashTableFirstEntry = null;
             this.hashTableLastEntry = null;
-            HashTableUtil.nullifyArray(hashTableBuckets);
+            if (openAddressing) {
+                Arrays.fill(openAddressingSlots, 0);
+            } else {
+                HashTableUtil.nullifyArray(hashTableBuckets);
+            }
         }
     }
     
+    /**
+     * Merges all classes from the given operator into this operator. Classes which are new
+     * to this operator are appended in the order in which they have been created in the other
+     * operator. Merging the operators of consecutive partitions of the dataset in the order of
+     * the partitions thus results in the same state as grouping the whole dataset.
+     * @param other
+     */
+    public void stateMerge(HashGroupify other) {
+        HashGroupifyEntry entry = other.hashTableFirstEntry;
+        while (entry != null) {
+            addFromGroupify(entry.key, entry.distributions, entry.representative, entry.count, entry.pcount);
+            entry = entry.nextOrdered;
+        }
+    }
+
     /**
      * This method will reset all flags that indicate that equivalence classes are suppressed.
      */
@@ -408,14 +449,12 @@ public class HashGroupify {
     private HashGroupifyEntry addInternal(final int[] generalized, final int hash, final int representative, int count, final int pcount) {
         
         // Find or create entry
-        int index = hash & (hashTableBuckets.length - 1);
-        HashGroupifyEntry entry = findEntry(generalized, index, hash);
+        HashGroupifyEntry entry = findEntry(generalized, hash);
         if (entry == null) {
             if (++hashTableElementCount > hashTableThreshold) {
                 rehash();
-                index = hash & (hashTableBuckets.length - 1);
             }
-            entry = createEntry(generalized, index, hash, representative);
+            entry = createEntry(generalized, hash, representative);
         }
         
         // If we enforce d-presence and the tuple is not contained in the research subset: set its count to zero
@@ -612,23 +651,45 @@ public class HashGroupify {
     }
     
     /**
-     * Creates a new entry.
+     * Creates a new entry. Requires that the element count has already been incremented.
      * 
      * @param key
      *            the key
-     * @param index
-     *            the index
      * @param hash
      *            the hash
      * @param line
      *            the line
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry createEntry(final int[] key, final int index, final int hash, final int line) {
-        final HashGroupifyEntry entry = new HashGroupifyEntry(key, hash);
-        entry.next = hashTableBuckets[index];
+    private HashGroupifyEntry createEntry(final int[] key, final int hash, final int line) {
+        final HashGroupifyEntry entry;
+        if (openAddressing) {
+            
+            // Reuse entry, if possible
+            final int ordinal = hashTableElementCount - 1;
+            if (openAddressingEntries[ordinal] == null) {
+                entry = new HashGroupifyEntry(key, hash);
+                openAddressingEntries[ordinal] = entry;
+            } else {
+                entry = openAddressingEntries[ordinal];
+                entry.reset(key, hash);
+            }
+            
+            // Find free slot
+            final int mask = openAddressingSlots.length - 1;
+            int slot = getSlot(hash, mask);
+            while (openAddressingSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            openAddressingSlots[slot] = ordinal + 1;
+            openAddressingHashes[slot] = hash;
+        } else {
+            final int index = hash & (hashTableBuckets.length - 1);
+            entry = new HashGroupifyEntry(key, hash);
+            entry.next = hashTableBuckets[index];
+            hashTableBuckets[index] = entry;
+        }
         entry.representative = line;
-        hashTableBuckets[index] = entry;
         if (hashTableFirstEntry == null) {
             hashTableFirstEntry = entry;
             hashTableLastEntry = entry;
@@ -660,18 +721,76 @@ public class HashGroupify {
      * 
      * @param key
      *            the key
-     * @param index
-     *            the index
      * @param keyHash
      *            the key hash
      * @return the hash groupify entry
      */
-    private HashGroupifyEntry findEntry(final int[] key, final int index, final int keyHash) {
-        HashGroupifyEntry m = hashTableBuckets[index];
-        while ((m != null) && ((m.hashcode != keyHash) || !HashTableUtil.equals(key, m.key))) {
-            m = m.next;
+    private HashGroupifyEntry findEntry(final int[] key, final int keyHash) {
+        if (openAddressing) {
+            final int mask = openAddressingSlots.length - 1;
+            int slot = getSlot(keyHash, mask);
+            while (openAddressingSlots[slot] != 0) {
+                if (openAddressingHashes[slot] == keyHash) {
+                    HashGroupifyEntry m = openAddressingEntries[openAddressingSlots[slot] - 1];
+                    if (HashTableUtil.equals(key, m.key)) {
+                        return m;
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        } else {
+            HashGroupifyEntry m = hashTableBuckets[keyHash & (hashTableBuckets.length - 1)];
+            while ((m != null) && ((m.hashcode != keyHash) || !HashTableUtil.equals(key, m.key))) {
+                m = m.next;
+            }
+            return m;
         }
-        return m;
+    }
+
+    /**
+     * Returns the according entry, ignoring the outlier flag of the stored keys.
+     * 
+     * @param key
+     *            the key
+     * @param keyHash
+     *            the key hash
+     * @return the hash groupify entry
+     */
+    private HashGroupifyEntry findEntryIgnoringOutliers(final int[] key, final int keyHash) {
+        if (openAddressing) {
+            final int mask = openAddressingSlots.length - 1;
+            int slot = getSlot(keyHash, mask);
+            while (openAddressingSlots[slot] != 0) {
+                if (openAddressingHashes[slot] == keyHash) {
+                    HashGroupifyEntry m = openAddressingEntries[openAddressingSlots[slot] - 1];
+                    if (equalsIgnoringOutliers(key, m.key)) {
+                        return m;
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        } else {
+            HashGroupifyEntry m = hashTableBuckets[keyHash & (hashTableBuckets.length - 1)];
+            while ((m != null) && ((m.hashcode != keyHash) || !equalsIgnoringOutliers(key, m.key))) {
+                m = m.next;
+            }
+            return m;
+        }
+    }
+
+    /**
+     * Returns the initial slot for the given hash code. As the hash codes of keys with small
+     * values are clustered in the lower bits, the bits are spread before probing.
+     * 
+     * @param hash
+     * @param mask
+     * @return
+     */
+    private int getSlot(final int hash, final int mask) {
+        final int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
     }
         
     /**
@@ -704,6 +823,31 @@ public class HashGroupify {
      */
     private void rehash() {
         
+        // Open addressing
+        if (openAddressing) {
+            final int length = HashTableUtil.calculateCapacity(openAddressingSlots.length << 1);
+            final int mask = length - 1;
+            final int[] slots = new int[length];
+            final int[] hashes = new int[length];
+            int ordinal = 0;
+            HashGroupifyEntry entry = hashTableFirstEntry;
+            while (entry != null) {
+                int slot = getSlot(entry.hashcode, mask);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = ++ordinal;
+                hashes[slot] = entry.hashcode;
+                entry = entry.nextOrdered;
+            }
+            openAddressingSlots = slots;
+            openAddressingHashes = hashes;
+            openAddressingEntries = Arrays.copyOf(openAddressingEntries, length);
+            hashTableThreshold = HashTableUtil.calculateThreshold(length, hashTableLoadFactor);
+            return;
+        }
+        
+        // Chaining
         final int length = HashTableUtil.calculateCapacity((hashTableBuckets.length == 0 ? 1 : hashTableBuckets.length << 1));
         final HashGroupifyEntry[] newData = new HashGroupifyEntry[length];
         HashGroupifyEntry entry = hashTableFirstEntry;
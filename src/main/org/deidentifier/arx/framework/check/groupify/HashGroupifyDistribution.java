@@ -18,15 +18,13 @@
 package org.deidentifier.arx.framework.check.groupify;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyDistribution.PrivacyCondition.State;
 import org.deidentifier.arx.framework.lattice.Transformation;
-import org.deidentifier.arx.metric.InformationLossWithBound;
+import org.deidentifier.arx.metric.InformationLoss;
 import org.deidentifier.arx.metric.Metric;
 import org.deidentifier.arx.metric.v2.MetricMDHeight;
 import org.deidentifier.arx.metric.v2.MetricMDNMPrecision;
@@ -79,8 +77,14 @@ public class HashGroupifyDistribution {
     private IntIntOpenHashMap   distribution = new IntIntOpenHashMap();
     /** The number of suppressed tuples */
     private int                 numSuppressed   = 0;
-    /** Entries that can be suppressed */
+    /** Entries that can be suppressed, in the order in which they are suppressed */
     private HashGroupifyEntry[] entries;
+    /** Sizes of the entries that can be suppressed, in the same order */
+    private int[]               sizes;
+    /** Number of entries that are currently suppressed. This is always a prefix of the entries. */
+    private int                 numSuppressedEntries = 0;
+    /** Number of entries which have been marked as outliers */
+    private int                 numMarkedEntries = 0;
     /** Number of tuples in the data set */
     private double              numRecords    = 0;
     /** Number of classes in the data set */
@@ -98,7 +102,7 @@ public class HashGroupifyDistribution {
                              HashGroupifyEntry entry) {
         
         // Initialize
-        List<HashGroupifyEntry> list = new ArrayList<HashGroupifyEntry>();
+        final List<HashGroupifyEntry> list = new ArrayList<HashGroupifyEntry>();
         while(entry != null) {
             if (entry.isNotOutlier && entry.count > 0) {
                 addToDistribution(entry.count);
@@ -109,68 +113,61 @@ public class HashGroupifyDistribution {
             entry = entry.nextOrdered;
         }
         
-        Comparator<HashGroupifyEntry> comparator;
+        // Prepare sort keys
+        final int[] counts = new int[list.size()];
+        final int[] representatives = new int[list.size()];
+        Integer[] order = new Integer[list.size()];
+        for (int i = 0; i < order.length; i++) {
+            HashGroupifyEntry element = list.get(i);
+            counts[i] = element.count;
+            representatives[i] = element.representative;
+            order[i] = i;
+        }
         
         // Blacklist metrics for which information loss of individual entries
         // is equal to the size of the class
-        if ((metric == null) ||
-            (metric instanceof MetricMDHeight) ||
-            (metric instanceof MetricMDNMPrecision) ||
-            (metric instanceof MetricMDNUEntropy) ||
-            (metric instanceof MetricMDNUEntropyPotentiallyPrecomputed) ||
-            (metric instanceof MetricMDNUEntropyPrecomputed) ||
-            (metric instanceof MetricMDNUNMEntropy) ||
-            (metric instanceof MetricMDNUNMEntropyPotentiallyPrecomputed) ||
-            (metric instanceof MetricMDNUNMEntropyPrecomputed) ||
-            (metric instanceof MetricMDPrecision) ||
-            (metric instanceof MetricMDStatic) ||
-            (metric instanceof MetricSDAECS) ||
-            (metric instanceof MetricSDDiscernability) ||
-            (metric instanceof MetricSDNMDiscernability)) {
-            
-            // Create comparator
-            comparator = new Comparator<HashGroupifyEntry>(){
-                public int compare(HashGroupifyEntry o1, HashGroupifyEntry o2) {
-                    int cmp = Integer.compare(o1.count, o2.count);
-                    return cmp != 0 ? cmp : Integer.compare(o1.representative, o2.representative);
+        final boolean lossEqualsSize = (metric == null) ||
+                                       (metric instanceof MetricMDHeight) ||
+                                       (metric instanceof MetricMDNMPrecision) ||
+                                       (metric instanceof MetricMDNUEntropy) ||
+                                       (metric instanceof MetricMDNUEntropyPotentiallyPrecomputed) ||
+                                       (metric instanceof MetricMDNUEntropyPrecomputed) ||
+                                       (metric instanceof MetricMDNUNMEntropy) ||
+                                       (metric instanceof MetricMDNUNMEntropyPotentiallyPrecomputed) ||
+                                       (metric instanceof MetricMDNUNMEntropyPrecomputed) ||
+                                       (metric instanceof MetricMDPrecision) ||
+                                       (metric instanceof MetricMDStatic) ||
+                                       (metric instanceof MetricSDAECS) ||
+                                       (metric instanceof MetricSDDiscernability) ||
+                                       (metric instanceof MetricSDNMDiscernability);
+        
+        // Sort by size, information loss and representative. Information loss is computed on demand.
+        final InformationLoss<?>[] losses = new InformationLoss<?>[list.size()];
+        Arrays.sort(order, new Comparator<Integer>(){
+            public int compare(Integer o1, Integer o2) {
+                int index1 = o1;
+                int index2 = o2;
+                int cmp = Integer.compare(counts[index1], counts[index2]);
+                if (cmp == 0 && !lossEqualsSize) {
+                    cmp = getInformationLoss(index1).compareTo(getInformationLoss(index2));
                 }
-            };
-        } else {
-            
-            // Cache for information loss
-            final Map<HashGroupifyEntry, InformationLossWithBound<?>> cache = 
-                    new HashMap<HashGroupifyEntry, InformationLossWithBound<?>>();
-            
-            // Create comparator
-            comparator = new Comparator<HashGroupifyEntry>(){
-                public int compare(HashGroupifyEntry o1, HashGroupifyEntry o2) {
-                    
-                    int cmp = Integer.compare(o1.count, o2.count);
-                    if (cmp != 0) {
-                        return cmp;
-                    }
-                    
-                    InformationLossWithBound<?> loss1 = cache.get(o1);
-                    InformationLossWithBound<?> loss2 = cache.get(o2);
-                    if (loss1 == null) {
-                        loss1 = metric.getInformationLoss(transformation, o1); 
-                        cache.put(o1, loss1);
-                    }
-                    
-                    if (loss2 == null) {
-                        loss2 = metric.getInformationLoss(transformation, o2); 
-                        cache.put(o2, loss2);
-                    }
-                    
-                    cmp = loss1.getInformationLoss().compareTo(loss2.getInformationLoss());
-                    return cmp != 0 ? cmp : Integer.compare(o1.representative, o2.representative);
+                return cmp != 0 ? cmp : Integer.compare(representatives[index1], representatives[index2]);
+            }
+            private InformationLoss<?> getInformationLoss(int index) {
+                if (losses[index] == null) {
+                    losses[index] = metric.getInformationLoss(transformation, list.get(index)).getInformationLoss();
                 }
-            };
-        }
+                return losses[index];
+            }
+        });
             
-        // Sort & store suppressible entries
-        Collections.sort(list, comparator);
-        this.entries = list.toArray(new HashGroupifyEntry[list.size()]);
+        // Store suppressible entries
+        this.entries = new HashGroupifyEntry[order.length];
+        this.sizes = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.entries[i] = list.get(order[i]);
+            this.sizes[i] = counts[order[i]];
+        }
     }
     
     /**
@@ -215,28 +212,29 @@ public class HashGroupifyDistribution {
     
 
     /**
-     * Suppresses entries until the condition is fulfilled
+     * Suppresses entries until the condition is fulfilled. Entries which have already been suppressed
+     * to fulfill another condition remain suppressed. Only the aggregates of the distribution are updated
+     * during the search, outliers are marked when it has terminated.
+     * 
      * @param condition
      * @return the number of tuples that have been suppressed
      */
     public int suppressWhileNotFulfilledBinary(PrivacyCondition condition) {
         
         // Nothing to suppress
-        if (entries.length == 0) {
+        if (numSuppressedEntries == sizes.length) {
             return this.numSuppressed;
         }
 
         // Start parameters
-        int low = 0;
-        int high = entries.length - 1;
+        int low = numSuppressedEntries;
+        int high = sizes.length - 1;
         int mid = (low + high) / 2;
         int initiallySuppressed = this.numSuppressed;
         State state = State.ABORT;
 
         // Initially suppress from low to mid
-        for (int i=low; i <= mid; i++) {
-            suppressEntry(entries[i]);
-        }
+        suppressEntries(mid + 1);
 
         // While not done
         while (low <= high) {
@@ -250,9 +248,7 @@ public class HashGroupifyDistribution {
                 mid = (low + high) / 2;
                 
                 // Clear suppression from mid
-                for (int i = mid + 1; i < entries.length && !entries[i].isNotOutlier; i++) {
-                    unSuppressEntry(entries[i]);
-                }
+                suppressEntries(mid + 1);
                 
             } else { // state == State.NOT_FULFILLED
                 
@@ -260,25 +256,26 @@ public class HashGroupifyDistribution {
                 mid = (low + high) / 2;
                 
                 // Suppress from low to mid
-                for (int i=low; i <= mid; i++) {
-                    suppressEntry(entries[i]);
-                }
+                suppressEntries(mid + 1);
             }
         }
 
         // Finally check mid+1
         if (state != State.ABORT) {
             state = condition.isFulfilled(this);
-            if (state == State.NOT_FULFILLED && mid + 1 < entries.length && entries[mid + 1].isNotOutlier) {
-                suppressEntry(entries[mid + 1]);
+            if (state == State.NOT_FULFILLED && mid + 1 < sizes.length) {
+                suppressEntries(mid + 2);
             }
         }
 
+        markOutliers();
         return this.numSuppressed - initiallySuppressed;
     }
 
     /**
-     * Suppresses entries until the condition is fulfilled
+     * Suppresses entries until the condition is fulfilled. Entries which have already been suppressed
+     * to fulfill another condition remain suppressed.
+     * 
      * @param condition
      * @return the number of tuples that have been suppressed
      */
@@ -286,16 +283,17 @@ public class HashGroupifyDistribution {
 
         int initiallySuppressed = this.numSuppressed;
 
-        for (int i=0; i<entries.length; i++) {
+        for (int i=numSuppressedEntries; i<sizes.length; i++) {
             State state = condition.isFulfilled(this);
             if (state == State.NOT_FULFILLED) {
-                suppressEntry(entries[i]);
+                suppressEntries(i + 1);
             } else { 
                 // State.FULFILLED || State.ABORT
                 break;
             }
         }
         
+        markOutliers();
         return this.numSuppressed - initiallySuppressed;
     }
 
@@ -309,6 +307,15 @@ public class HashGroupifyDistribution {
         this.distribution.putOrAdd(size, 1, 1);   
     }
 
+    /**
+     * Marks all entries that are currently suppressed as outliers
+     */
+    private void markOutliers() {
+        for (; numMarkedEntries < numSuppressedEntries; numMarkedEntries++) {
+            entries[numMarkedEntries].isNotOutlier = false;
+        }
+    }
+
     /**
      * Removes an entry
      * @param size
@@ -323,28 +330,26 @@ public class HashGroupifyDistribution {
     }
 
     /**
-     * Suppresses the given entry
-     * @param entry
-     */
-    private void suppressEntry(HashGroupifyEntry entry) {
-        entry.isNotOutlier = false;
-        removeFromDistribution(entry.count);
-        this.numSuppressed += entry.count;
-        // No need to adjust "numRecords", because this is done in "removeFromDistribution"
-    }
-
-    /**
-     * Unsuppresses the given entry
-     * @param entry
+     * Suppresses or unsuppresses entries, such that exactly the given number of entries is suppressed.
+     * Entries which have already been marked as outliers are never unsuppressed.
+     * 
+     * @param numEntries
      */
-    private void unSuppressEntry(HashGroupifyEntry entry) {
+    private void suppressEntries(int numEntries) {
         
-        if (this.numSuppressed == 0 || entry.isNotOutlier) {
-            throw new IllegalStateException("Internal error. There are not suppressed entries.");
+        if (numEntries < numMarkedEntries || numEntries > sizes.length) {
+            throw new IllegalStateException("Internal error. Invalid number of suppressed entries.");
+        }
+        while (numSuppressedEntries < numEntries) {
+            int size = sizes[numSuppressedEntries++];
+            removeFromDistribution(size);
+            this.numSuppressed += size;
+        }
+        while (numSuppressedEntries > numEntries) {
+            int size = sizes[--numSuppressedEntries];
+            addToDistribution(size);
+            this.numSuppressed -= size;
         }
-        entry.isNotOutlier = true;
-        this.numSuppressed -= entry.count;
-        addToDistribution(entry.count);
-        // No need to adjust "numRecords", because this is done in "addToDistribution"
+        // No need to adjust "numRecords", because this is done in "addToDistribution" and "removeFromDistribution"
     }
 }
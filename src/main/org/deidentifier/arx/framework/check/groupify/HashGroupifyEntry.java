@@ -34,10 +34,10 @@ public class HashGroupifyEntry {
     public int               pcount       = 0;
 
     /** The hashcode of this class. */
-    public final int         hashcode;
+    public int               hashcode;
 
     /** The key of this class. */
-    public final int[]       key;
+    public int[]             key;
 
     /** The next element in this bucket. */
     public HashGroupifyEntry next         = null;
@@ -66,4 +66,24 @@ public class HashGroupifyEntry {
         hashcode = hash;
         this.key = key;
     }
+
+    /**
+     * Resets this entry, so that it can be reused for a new class.
+     * 
+     * @param key
+     *            the key
+     * @param hash
+     *            the hash
+     */
+    void reset(final int[] key, final int hash) {
+        this.hashcode = hash;
+        this.key = key;
+        this.count = 0;
+        this.pcount = 0;
+        this.next = null;
+        this.nextOrdered = null;
+        this.representative = -1;
+        this.isNotOutlier = false;
+        this.distributions = null;
+    }
 }
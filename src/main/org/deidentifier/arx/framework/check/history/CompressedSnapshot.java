@@ -0,0 +1,247 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+/**
+ * Compressed encoding of snapshots. A snapshot consists of fixed-length records, one for each
+ * equivalence class, which start with the representative of the class. As classes are stored in
+ * the order of their first occurrence, representatives are encoded as differences to the
+ * representative of the previous record. All other values (counts and references into the
+ * dictionaries of distributions) are small non-negative integers. All values are encoded with
+ * a variable number of bytes, seven bits per byte. To be able to pass compressed snapshots
+ * through the same code paths as uncompressed ones, the bytes are packed into an int array,
+ * which is prefixed with the number of records and an index. For every block of records, the
+ * index stores the position of its first record and the representative preceding it, so that
+ * decoding can start at any block, e.g. when partitions of a snapshot are processed
+ * concurrently.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class CompressedSnapshot {
+
+    /**
+     * Decodes a compressed snapshot record by record
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    public static class Decoder {
+
+        /** The snapshot */
+        private int[] snapshot;
+
+        /** The length of a record */
+        private int   length;
+
+        /** The current position in bytes */
+        private int   position;
+
+        /** The offset of the encoded records in the snapshot */
+        private int   offset;
+
+        /** The previous representative */
+        private int   representative;
+
+        /**
+         * Decodes the given number of records into the given buffer
+         *
+         * @param buffer
+         * @param records
+         */
+        public void read(int[] buffer, int records) {
+            int offset = 0;
+            for (int record = 0; record < records; record++) {
+                representative += decodeZigZag(readVarInt());
+                buffer[offset] = representative;
+                for (int i = 1; i < length; i++) {
+                    buffer[offset + i] = readVarInt();
+                }
+                offset += length;
+            }
+        }
+
+        /**
+         * Prepares decoding the given snapshot
+         *
+         * @param snapshot
+         * @param length
+         */
+        public void reset(int[] snapshot, int length) {
+            this.snapshot = snapshot;
+            this.length = length;
+            this.position = 0;
+            this.representative = 0;
+            this.offset = 1 + 2 * getNumberOfBlocks(getNumberOfClasses(snapshot));
+        }
+
+        /**
+         * Continues decoding at the given record. Starts at the block containing the record
+         * and skips the records preceding it within the block.
+         *
+         * @param record
+         */
+        public void seek(int record) {
+            int blocks = getNumberOfBlocks(getNumberOfClasses(snapshot));
+            if (blocks == 0) {
+                return;
+            }
+            int block = Math.min(record >>> BLOCK_BITS, blocks - 1);
+            this.position = snapshot[1 + 2 * block];
+            this.representative = snapshot[2 + 2 * block];
+            for (int skip = record - (block << BLOCK_BITS); skip > 0; skip--) {
+                representative += decodeZigZag(readVarInt());
+                for (int i = 1; i < length; i++) {
+                    readVarInt();
+                }
+            }
+        }
+
+        /**
+         * Reads a single variable-length value
+         *
+         * @return
+         */
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            int current;
+            do {
+                current = (snapshot[offset + (position >>> 2)] >>> ((position & 3) << 3)) & 0xFF;
+                position++;
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+    }
+
+    /** Log2 of the number of records per block of the index */
+    private static final int BLOCK_BITS = 10;
+
+    /**
+     * Compresses the given snapshot
+     *
+     * @param snapshot
+     * @param length The length of a record
+     * @return
+     */
+    public static int[] compress(int[] snapshot, int length) {
+
+        // Encode
+        int records = snapshot.length / length;
+        int[] index = new int[2 * getNumberOfBlocks(records)];
+        byte[] buffer = new byte[snapshot.length * 5];
+        int position = 0;
+        int representative = 0;
+        for (int offset = 0, record = 0; offset < snapshot.length; offset += length, record++) {
+            if ((record & ((1 << BLOCK_BITS) - 1)) == 0) {
+                index[2 * (record >>> BLOCK_BITS)] = position;
+                index[2 * (record >>> BLOCK_BITS) + 1] = representative;
+            }
+            position = writeVarInt(buffer, position, encodeZigZag(snapshot[offset] - representative));
+            representative = snapshot[offset];
+            for (int i = 1; i < length; i++) {
+                position = writeVarInt(buffer, position, snapshot[offset + i]);
+            }
+        }
+
+        // Pack
+        int header = 1 + index.length;
+        int[] result = new int[header + ((position + 3) >>> 2)];
+        result[0] = records;
+        System.arraycopy(index, 0, result, 1, index.length);
+        for (int i = 0; i < position; i++) {
+            result[header + (i >>> 2)] |= (buffer[i] & 0xFF) << ((i & 3) << 3);
+        }
+        return result;
+    }
+
+    /**
+     * Decompresses the given snapshot
+     *
+     * @param snapshot
+     * @param length The length of a record
+     * @return
+     */
+    public static int[] decompress(int[] snapshot, int length) {
+        int records = getNumberOfClasses(snapshot);
+        int[] result = new int[records * length];
+        Decoder decoder = new Decoder();
+        decoder.reset(snapshot, length);
+        decoder.read(result, records);
+        return result;
+    }
+
+    /**
+     * Returns the number of equivalence classes stored in the given compressed snapshot
+     *
+     * @param snapshot
+     * @return
+     */
+    public static int getNumberOfClasses(int[] snapshot) {
+        return snapshot[0];
+    }
+
+    /**
+     * Returns the number of blocks in the index for the given number of records
+     *
+     * @param records
+     * @return
+     */
+    private static int getNumberOfBlocks(int records) {
+        return (records + (1 << BLOCK_BITS) - 1) >>> BLOCK_BITS;
+    }
+
+    /**
+     * Decodes a zig-zag encoded value
+     *
+     * @param value
+     * @return
+     */
+    private static int decodeZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Zig-zag encodes a value, mapping small negative numbers to small positive numbers
+     *
+     * @param value
+     * @return
+     */
+    private static int encodeZigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Writes a single variable-length value
+     *
+     * @param buffer
+     * @param position
+     * @param value
+     * @return The new position
+     */
+    private static int writeVarInt(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+}
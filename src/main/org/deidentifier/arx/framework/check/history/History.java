@@ -17,6 +17,8 @@
 
 package org.deidentifier.arx.framework.check.history;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 
@@ -68,9 +70,54 @@ public class History {
     /** The node backing the last returned snapshot. */
     private MRUCacheEntryMetadata           resultMetadata;
 
+    /** The snapshot found by the last lookup, if any. */
+    private MRUCacheEntryMetadata           candidateMetadata;
+
     /** Maximal number of entries. */
     private int                             size;
 
+    /** Maximal size of all snapshots in bytes. */
+    private long                            memoryLimit                   = Long.MAX_VALUE;
+
+    /** Current size of all snapshots in bytes. */
+    private long                            memoryUsed                    = 0L;
+
+    /** Peak size of all snapshots in bytes. */
+    private long                            memoryPeak                    = 0L;
+
+    /** Priority of the last evicted entry, which ages the priorities of all other entries. */
+    private double                          inflation                     = 0d;
+
+    /** Number of requests that have been answered with a snapshot. */
+    private long                            hits                          = 0L;
+
+    /** Number of requests for which a snapshot has been found, but a roll-up has been used. */
+    private long                            unusedHits                    = 0L;
+
+    /** Number of requests that could not be answered with a snapshot. */
+    private long                            misses                        = 0L;
+
+    /** Number of snapshots that have been evicted to make room for new ones. */
+    private long                            evictions                     = 0L;
+
+    /** Number of snapshots that have been stored. */
+    private long                            stores                        = 0L;
+
+    /** Directory for snapshots spilled to disk, <code>null</code> if spilling is disabled. */
+    private File                            spillDirectory                = null;
+
+    /** Maximal size of all snapshots spilled to disk in bytes. */
+    private long                            spillLimit                    = Long.MAX_VALUE;
+
+    /** Snapshots spilled to disk, created lazily. */
+    private SnapshotSpillFile               spillFile                     = null;
+
+    /** Number of snapshots that have been spilled to disk. */
+    private long                            spills                        = 0L;
+
+    /** Number of requests that have been answered with a snapshot from disk. */
+    private long                            spillHits                     = 0L;
+
     /** The snapshotSizeDataset for the size of entries. */
     private final long                      snapshotSizeDataset;
 
@@ -134,15 +181,17 @@ public class History {
     }
     
     /**
-     * Retrieves a snapshot.
+     * Searches for the snapshot with the fewest classes from which the given transformation can
+     * be computed. The lookup neither modifies the cache nor reads snapshots from disk, so it can
+     * be used to decide whether a snapshot should be used at all. The snapshot can then be
+     * retrieved with <code>get()</code>.
      * 
      * @param transformation
-     * @return snapshot
+     * @return the number of classes in the snapshot, -1 if no snapshot is available
      */
-    public int[] get(final int[] transformation) {
+    public int find(final int[] transformation) {
 
         // Init
-        int[] resultSnapshot = null;
         MRUCacheEntryMetadata resultMetadata = null;
         int level = solutionSpace.getLevel(transformation);
 
@@ -151,27 +200,82 @@ public class History {
         while (entry != null) {
             MRUCacheEntryMetadata currentMetadata = entry.data;
             if (currentMetadata.level < level) {
-                final int[] currentSnapshot = nodeToSnapshot.get(currentMetadata.id);
-                if ((resultMetadata == null) || (currentSnapshot.length < resultSnapshot.length)) {
+                if ((resultMetadata == null) || (currentMetadata.classes < resultMetadata.classes)) {
                     if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
                         resultMetadata = currentMetadata;
-                        resultSnapshot = currentSnapshot;
                     }
                 }
             }
             entry = entry.next;
         }
 
-        // Manager
-        if (resultMetadata != null) {
-            cache.touch(resultMetadata);
+        // Search snapshots spilled to disk
+        if (resultMetadata == null && spillFile != null) {
+            for (MRUCacheEntryMetadata currentMetadata : spillFile.getEntries()) {
+                if (currentMetadata.level < level) {
+                    if ((resultMetadata == null) || (currentMetadata.classes < resultMetadata.classes)) {
+                        if (solutionSpace.isParentChildOrEqual(transformation, currentMetadata.transformation)) {
+                            resultMetadata = currentMetadata;
+                        }
+                    }
+                }
+            }
         }
+
+        // Return
+        this.candidateMetadata = resultMetadata;
+        if (resultMetadata == null) {
+            misses++;
+            return -1;
+        } else {
+            return resultMetadata.classes;
+        }
+    }
+
+    /**
+     * Retrieves the snapshot found by the last call to <code>find()</code>.
+     * 
+     * @return snapshot, <code>null</code> if no snapshot has been found
+     */
+    public int[] get() {
+
+        // Init
+        MRUCacheEntryMetadata resultMetadata = this.candidateMetadata;
+        this.candidateMetadata = null;
         this.resultMetadata = resultMetadata;
+        if (resultMetadata == null) {
+            return null;
+        }
+
+        // Retrieve
+        int[] resultSnapshot = nodeToSnapshot.get(resultMetadata.id);
+        if (resultSnapshot != null) {
+            cache.touch(resultMetadata);
+        } else {
+            resultSnapshot = spillFile.read(resultMetadata.id);
+            spillHits++;
+        }
+
+        // Manage
+        resultMetadata.hits++;
+        resultMetadata.priority = getPriority(resultMetadata);
+        hits++;
 
         // Return
         return resultSnapshot;
     }
 
+    /**
+     * Retrieves a snapshot.
+     * 
+     * @param transformation
+     * @return snapshot
+     */
+    public int[] get(final int[] transformation) {
+        find(transformation);
+        return get();
+    }
+
     /**
      * Method needed for benchmarking.
      *
@@ -190,6 +294,116 @@ public class History {
         return dictionarySensValue;
     }
 
+    /**
+     * Discards the snapshot found by the last call to <code>find()</code>, because a different
+     * transition is used.
+     */
+    public void discard() {
+        if (this.candidateMetadata != null) {
+            this.candidateMetadata = null;
+            unusedHits++;
+        }
+    }
+
+    /**
+     * Returns the number of snapshots that have been evicted to make room for new ones.
+     *
+     * @return
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of requests that have been answered with a snapshot.
+     *
+     * @return
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the maximal size of all snapshots in bytes.
+     *
+     * @return
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Returns the peak size of all snapshots in bytes.
+     *
+     * @return
+     */
+    public long getMemoryPeak() {
+        return memoryPeak;
+    }
+
+    /**
+     * Returns the current size of all snapshots in bytes.
+     *
+     * @return
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Returns the number of requests that could not be answered with a snapshot.
+     *
+     * @return
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of requests for which a snapshot has been found, but a roll-up has been used.
+     *
+     * @return
+     */
+    public long getUnusedHits() {
+        return unusedHits;
+    }
+
+    /**
+     * Returns the directory for snapshots spilled to disk, <code>null</code> if spilling is disabled.
+     *
+     * @return
+     */
+    public File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Returns the number of requests that have been answered with a snapshot from disk.
+     *
+     * @return
+     */
+    public long getSpillHits() {
+        return spillHits;
+    }
+
+    /**
+     * Returns the maximal size of all snapshots spilled to disk in bytes.
+     *
+     * @return
+     */
+    public long getSpillLimit() {
+        return spillLimit;
+    }
+
+    /**
+     * Returns the number of snapshots that have been spilled to disk.
+     *
+     * @return
+     */
+    public long getSpills() {
+        return spills;
+    }
+
     /**
      * Returns the current storage strategy.
      *
@@ -199,6 +413,15 @@ public class History {
         return storageTrigger;
     }
 
+    /**
+     * Returns the number of snapshots that have been stored.
+     *
+     * @return
+     */
+    public long getStores() {
+        return stores;
+    }
+
     /**
      * Returns the node backing the last returned snapshot.
      *
@@ -211,9 +434,25 @@ public class History {
             return resultMetadata.transformation;
         }
     }
+
+    /**
+     * Adds the statistics collected by the given history to the statistics of this history.
+     *
+     * @param other
+     */
+    public void mergeStatistics(History other) {
+        this.hits += other.hits;
+        this.unusedHits += other.unusedHits;
+        this.misses += other.misses;
+        this.evictions += other.evictions;
+        this.stores += other.stores;
+        this.spills += other.spills;
+        this.spillHits += other.spillHits;
+        this.memoryPeak = Math.max(this.memoryPeak, other.memoryPeak);
+    }
     
     /**
-     * Clears the history.
+     * Clears the history. Statistics are retained.
      */
     public void reset() {
         this.cache.clear();
@@ -221,6 +460,25 @@ public class History {
         this.dictionarySensFreq.clear();
         this.dictionarySensValue.clear();
         this.resultMetadata = null;
+        this.candidateMetadata = null;
+        this.memoryUsed = 0L;
+        this.inflation = 0d;
+        if (this.spillFile != null) {
+            this.spillFile.close();
+            this.spillFile = null;
+        }
+    }
+
+    /**
+     * Sets the maximal size of all snapshots in bytes.
+     *
+     * @param memoryLimit
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        if (memoryLimit <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+        this.memoryLimit = memoryLimit;
     }
 
     /**
@@ -232,6 +490,28 @@ public class History {
         this.size = size;
     }
     
+    /**
+     * Sets the directory in which snapshots evicted from memory are stored in a memory-mapped
+     * scratch file. Spilling is disabled if the directory is <code>null</code>.
+     *
+     * @param spillDirectory
+     */
+    public void setSpillDirectory(File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Sets the maximal size of all snapshots spilled to disk in bytes.
+     *
+     * @param spillLimit
+     */
+    public void setSpillLimit(long spillLimit) {
+        if (spillLimit <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+        this.spillLimit = spillLimit;
+    }
+
     /**
      * Sets the storage strategy
      * @param strategy
@@ -269,9 +549,15 @@ public class History {
             return false;
         }
 
+        // Early abort if already stored, which may happen when transformations are checked repeatedly
+        if (nodeToSnapshot.containsKey(transformation.getIdentifier()) ||
+            (spillFile != null && spillFile.contains(transformation.getIdentifier()))) {
+            return false;
+        }
+
         // Early abort if too large
         if (snapshot != null) {
-            final double relativeSize = (groupify.getNumberOfEquivalenceClasses() / ((double) snapshot.length / config.getSnapshotLength()));
+            final double relativeSize = (groupify.getNumberOfEquivalenceClasses() / (double) getNumberOfClasses(snapshot));
             if (relativeSize > snapshotSizeSnapshot) { return false; }
         }
         
@@ -281,21 +567,42 @@ public class History {
             return false;
         }
         
+        // Early abort if the snapshot alone exceeds the memory limit
+        if (!config.isUseCompressedSnapshots() &&
+            getSize(groupify.getNumberOfEquivalenceClasses() * config.getSnapshotLength()) > memoryLimit) {
+            return false;
+        }
+        
         // Clear the cache
         cleanUpHistory();
 
-        // Perform LRU eviction, if still too large
-        if (cache.size() >= size) {
-            removeHistoryEntry(cache.removeHead());
-        }
-        
         // Create the snapshot
         final int[] data = createSnapshot(groupify);
+        final long bytes = getSize(data.length);
+        if (bytes > memoryLimit) {
+            releaseSnapshot(data);
+            return false;
+        }
 
+        // Perform eviction, if still too large
+        while (cache.size() > 0 && (cache.size() >= size || memoryUsed + bytes > memoryLimit)) {
+            MRUCacheEntryMetadata victim = getVictim();
+            cache.remove(victim);
+            spillHistoryEntry(victim);
+            inflation = victim.priority;
+            evictions++;
+        }
+        
+        // Create the metadata
+        final MRUCacheEntryMetadata metadata = new MRUCacheEntryMetadata(transformation, bytes, groupify.getNumberOfEquivalenceClasses());
+        metadata.priority = getPriority(metadata);
 
         // assign snapshot and keep reference for cache
         nodeToSnapshot.put(transformation.getIdentifier(), data);
-        cache.append(new MRUCacheEntryMetadata(transformation));
+        cache.append(metadata);
+        memoryUsed += bytes;
+        memoryPeak = Math.max(memoryPeak, memoryUsed);
+        stores++;
 
         return true;
     }
@@ -313,6 +620,13 @@ public class History {
                 removeHistoryEntry(node);
             }
         }
+        if (spillFile != null) {
+            for (MRUCacheEntryMetadata node : spillFile.getEntries()) {
+                if (solutionSpace.hasProperty(node.transformation, solutionSpace.getPropertySuccessorsPruned())) {
+                    removeSpilledEntry(node);
+                }
+            }
+        }
     }
     
     /**
@@ -364,7 +678,70 @@ public class History {
             // Next element
             m = m.nextOrdered;
         }
-        return data;
+
+        // Compress
+        if (config.isUseCompressedSnapshots()) {
+            return CompressedSnapshot.compress(data, config.getSnapshotLength());
+        } else {
+            return data;
+        }
+    }
+
+    /**
+     * Returns the number of equivalence classes in the given snapshot
+     *
+     * @param snapshot
+     * @return
+     */
+    public int getNumberOfClasses(final int[] snapshot) {
+        if (config.isUseCompressedSnapshots()) {
+            return CompressedSnapshot.getNumberOfClasses(snapshot);
+        } else {
+            return snapshot.length / config.getSnapshotLength();
+        }
+    }
+
+    /**
+     * Returns the priority of the given entry. We use a greedy-dual-size-frequency policy:
+     * entries which have been used often and which are small are retained, while the inflation
+     * value makes sure that entries which have not been used for a long time eventually become
+     * candidates for eviction. The size is always based on the uncompressed representation,
+     * which reflects the effort required for processing the snapshot and keeps eviction
+     * decisions independent of the storage format.
+     *
+     * @param metadata
+     * @return
+     */
+    private double getPriority(final MRUCacheEntryMetadata metadata) {
+        return inflation + (double) (metadata.hits + 1) / (double) getSize(metadata.classes * config.getSnapshotLength());
+    }
+
+    /**
+     * Returns the size in bytes of a snapshot with the given length
+     *
+     * @param length
+     * @return
+     */
+    private long getSize(final int length) {
+        // Array header plus payload
+        return 16L + 4L * (long) length;
+    }
+
+    /**
+     * Returns the entry with the lowest priority, preferring least recently used entries
+     *
+     * @return
+     */
+    private MRUCacheEntryMetadata getVictim() {
+        MRUCacheEntryMetadata victim = null;
+        MRUCacheEntry<MRUCacheEntryMetadata> entry = cache.getHead();
+        while (entry != null) {
+            if (victim == null || entry.data.priority < victim.priority) {
+                victim = entry.data;
+            }
+            entry = entry.next;
+        }
+        return victim;
     }
 
     /**
@@ -373,7 +750,81 @@ public class History {
      * @param metadata
      */
     private final void removeHistoryEntry(final MRUCacheEntryMetadata metadata) {
+        releaseSnapshot(nodeToSnapshot.remove(metadata.id));
+        memoryUsed -= metadata.size;
+    }
+
+    /**
+     * Removes a snapshot from the disk tier.
+     *
+     * @param metadata
+     */
+    private final void removeSpilledEntry(final MRUCacheEntryMetadata metadata) {
+        if ((requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+            releaseSnapshot(spillFile.read(metadata.id));
+        }
+        spillFile.remove(metadata.id);
+    }
+
+    /**
+     * Moves a snapshot that has been evicted from memory to the disk tier, if enabled.
+     * The snapshot keeps its references into the dictionaries. If the scratch file
+     * cannot be written, spilling is disabled.
+     *
+     * @param metadata
+     */
+    private final void spillHistoryEntry(final MRUCacheEntryMetadata metadata) {
+
+        // Remove from memory
         final int[] snapshot = nodeToSnapshot.remove(metadata.id);
+        memoryUsed -= metadata.size;
+
+        // Check
+        if (spillDirectory == null) {
+            releaseSnapshot(snapshot);
+            return;
+        }
+        if (spillFile == null) {
+            spillFile = new SnapshotSpillFile(spillDirectory, spillLimit);
+        }
+        if (!spillFile.fits(snapshot.length)) {
+            releaseSnapshot(snapshot);
+            return;
+        }
+
+        // Make room
+        MRUCacheEntryMetadata overwritten = spillFile.getOverwritten(snapshot.length);
+        while (overwritten != null) {
+            removeSpilledEntry(overwritten);
+            overwritten = spillFile.getOverwritten(snapshot.length);
+        }
+
+        // Write
+        try {
+            spillFile.write(metadata, snapshot);
+            spills++;
+        } catch (IOException e) {
+            releaseSnapshot(snapshot);
+            for (MRUCacheEntryMetadata node : spillFile.getEntries()) {
+                removeSpilledEntry(node);
+            }
+            spillFile.close();
+            spillFile = null;
+            spillDirectory = null;
+        }
+    }
+
+    /**
+     * Releases the references from the given snapshot into the dictionaries.
+     *
+     * @param snapshot
+     */
+    private final void releaseSnapshot(int[] snapshot) {
+
+        // Decompress
+        if (config.isUseCompressedSnapshots() && (requirements & ARXConfiguration.REQUIREMENT_DISTRIBUTION) != 0) {
+            snapshot = CompressedSnapshot.decompress(snapshot, config.getSnapshotLength());
+        }
 
         switch (requirements) {
         case ARXConfiguration.REQUIREMENT_COUNTER | ARXConfiguration.REQUIREMENT_SECONDARY_COUNTER | ARXConfiguration.REQUIREMENT_DISTRIBUTION:
@@ -31,14 +31,26 @@ public class MRUCacheEntryMetadata {
     public final int   level;
     /** Id */
     public final long  id;
+    /** Size of the snapshot in bytes */
+    public final long  size;
+    /** Number of equivalence classes in the snapshot */
+    public final int   classes;
+    /** Number of times the snapshot has been used */
+    public int         hits;
+    /** Priority used for eviction */
+    public double      priority;
 
     /**
      * 
      * @param transformation
+     * @param size
+     * @param classes
      */
-    public MRUCacheEntryMetadata(Transformation transformation) {
+    public MRUCacheEntryMetadata(Transformation transformation, long size, int classes) {
         this.transformation = transformation.getGeneralization().clone();
         this.level = transformation.getLevel();
         this.id = transformation.getIdentifier();
+        this.size = size;
+        this.classes = classes;
     }
 }
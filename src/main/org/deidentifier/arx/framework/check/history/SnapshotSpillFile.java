@@ -0,0 +1,289 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.check.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A second tier for the history, which stores snapshots evicted from memory in a memory-mapped
+ * scratch file. The file is organized as a ring buffer: snapshots are appended at the current
+ * position and the oldest snapshots are overwritten when the size limit has been reached. The
+ * file is mapped in segments and snapshots never span two segments.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class SnapshotSpillFile {
+
+    /**
+     * An entry in the spill file
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private static class Entry {
+
+        /** The metadata */
+        private final MRUCacheEntryMetadata metadata;
+
+        /** The offset in bytes */
+        private final long                  offset;
+
+        /** The length of the snapshot */
+        private final int                   length;
+
+        /**
+         * Creates a new instance
+         *
+         * @param metadata
+         * @param offset
+         * @param length
+         */
+        private Entry(MRUCacheEntryMetadata metadata, long offset, int length) {
+            this.metadata = metadata;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** Maximal size of a mapped segment in bytes */
+    private static final int                SEGMENT_SIZE = 1 << 28;
+
+    /** The directory */
+    private final File                      directory;
+
+    /** The size limit in bytes */
+    private final long                      limit;
+
+    /** The size of a segment in bytes */
+    private final int                       segmentSize;
+
+    /** The entries, oldest first */
+    private final LinkedHashMap<Long, Entry> entries     = new LinkedHashMap<Long, Entry>();
+
+    /** The mapped segments */
+    private final List<IntBuffer>           segments     = new ArrayList<IntBuffer>();
+
+    /** The file, created lazily */
+    private File                            file;
+
+    /** The random access file */
+    private RandomAccessFile                raf;
+
+    /** The channel */
+    private FileChannel                     channel;
+
+    /** The current write position in bytes */
+    private long                            position     = 0L;
+
+    /**
+     * Creates a new instance
+     *
+     * @param directory The directory in which the scratch file will be created
+     * @param limit The maximal size of the file in bytes
+     */
+    public SnapshotSpillFile(File directory, long limit) {
+
+        // Check
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+
+        // Init
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(SEGMENT_SIZE, limit & ~3L);
+        this.limit = limit & ~3L;
+    }
+
+    /**
+     * Closes and deletes the file
+     */
+    public void close() {
+        entries.clear();
+        segments.clear();
+        position = 0L;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (raf != null) {
+                raf.close();
+            }
+        } catch (IOException e) {
+            // Ignore
+        } finally {
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+            channel = null;
+            raf = null;
+            file = null;
+        }
+    }
+
+    /**
+     * Returns whether a snapshot with the given id is stored in this file
+     *
+     * @param id
+     * @return
+     */
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Returns whether a snapshot of the given length can be stored in this file
+     *
+     * @param length
+     * @return
+     */
+    public boolean fits(int length) {
+        return length > 0 && 4L * length <= segmentSize;
+    }
+
+    /**
+     * Returns the metadata of all snapshots, oldest first
+     *
+     * @return
+     */
+    public Collection<MRUCacheEntryMetadata> getEntries() {
+        List<MRUCacheEntryMetadata> result = new ArrayList<MRUCacheEntryMetadata>(entries.size());
+        for (Entry entry : entries.values()) {
+            result.add(entry.metadata);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the metadata of the oldest snapshot, if it must be removed before a snapshot of the
+     * given length can be written. Returns <code>null</code> otherwise.
+     *
+     * @param length
+     * @return
+     */
+    public MRUCacheEntryMetadata getOverwritten(int length) {
+
+        // Check
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        // Check whether the oldest entry starts in the region between the current position
+        // and the end of the next write, which may wrap around
+        Entry oldest = entries.values().iterator().next();
+        long start = getWritePosition(length);
+        long end = start + 4L * length;
+        boolean overwritten = start >= position ? (oldest.offset >= position && oldest.offset < end)
+                                                : (oldest.offset >= position || oldest.offset < end);
+        return overwritten ? oldest.metadata : null;
+    }
+
+    /**
+     * Returns the number of snapshots stored in this file
+     *
+     * @return
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Reads the snapshot with the given id
+     *
+     * @param id
+     * @return
+     */
+    public int[] read(long id) {
+        Entry entry = entries.get(id);
+        int[] result = new int[entry.length];
+        IntBuffer buffer = segments.get((int) (entry.offset / segmentSize)).duplicate();
+        buffer.position((int) (entry.offset % segmentSize) >>> 2);
+        buffer.get(result);
+        return result;
+    }
+
+    /**
+     * Removes the snapshot with the given id
+     *
+     * @param id
+     */
+    public void remove(long id) {
+        entries.remove(id);
+    }
+
+    /**
+     * Writes a snapshot. All snapshots returned by {@link #getOverwritten(int)} must have been
+     * removed before.
+     *
+     * @param metadata
+     * @param snapshot
+     * @throws IOException
+     */
+    public void write(MRUCacheEntryMetadata metadata, int[] snapshot) throws IOException {
+
+        // Prepare
+        long offset = getWritePosition(snapshot.length);
+        int segment = (int) (offset / segmentSize);
+        if (file == null) {
+            file = File.createTempFile("arx-history-", ".tmp", directory);
+            file.deleteOnExit();
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+        }
+        while (segments.size() <= segment) {
+            long start = (long) segments.size() * segmentSize;
+            long size = Math.min(segmentSize, limit - start);
+            segments.add(channel.map(MapMode.READ_WRITE, start, size).order(ByteOrder.nativeOrder()).asIntBuffer());
+        }
+
+        // Write
+        IntBuffer buffer = segments.get(segment).duplicate();
+        buffer.position((int) (offset % segmentSize) >>> 2);
+        buffer.put(snapshot);
+        entries.put(metadata.id, new Entry(metadata, offset, snapshot.length));
+        position = offset + 4L * snapshot.length;
+    }
+
+    /**
+     * Returns the position at which a snapshot of the given length will be written
+     *
+     * @param length
+     * @return
+     */
+    private long getWritePosition(int length) {
+        long bytes = 4L * length;
+        long offset = position;
+        if ((offset % segmentSize) + bytes > segmentSize) {
+            offset = (offset / segmentSize + 1) * segmentSize;
+        }
+        if (offset + bytes > limit) {
+            offset = 0L;
+        }
+        return offset;
+    }
+}
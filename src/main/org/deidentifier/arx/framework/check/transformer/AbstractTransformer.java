@@ -25,6 +25,7 @@ import org.deidentifier.arx.framework.check.StateMachine.TransitionType;
 import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.check.groupify.HashGroupifyEntry;
 import org.deidentifier.arx.framework.check.groupify.HashGroupify;
+import org.deidentifier.arx.framework.check.history.CompressedSnapshot;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
@@ -35,6 +36,9 @@ import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
  */
 public abstract class AbstractTransformer implements Callable<HashGroupify> {
 
+    /** The number of records decoded at once from compressed snapshots. */
+    private static final int SNAPSHOT_BLOCK_SIZE = 1024;
+
     /**
      * Implementation of the delegate for Requirements.COUNTER
      * @author Kohlmayer, Prasser
@@ -229,7 +233,10 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     protected final int[]                     columnIndexArray;
     
     /** The column map array. */
-    protected final int[][][]                 columnMapArray;
+    protected final int[][]                   columnMapArray;
+
+    /** The number of columns that need to be transformed. */
+    protected int                             columnCount;
     
     /** The mode of operation *. */
     protected final ARXConfigurationInternal  config;
@@ -256,7 +263,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     /** The hierarchies. */
     protected final GeneralizationHierarchy[] hierarchies;
     /** The idindex14. */
-    protected int[][]                         idindex0, idindex1, idindex2, idindex3, idindex4, idindex5,
+    protected int[]                           idindex0, idindex1, idindex2, idindex3, idindex4, idindex5,
                                               idindex6, idindex7, idindex8, idindex9, idindex10, idindex11, idindex12, idindex13, idindex14;
     /** The index14. */
     protected int                             index0, index1, index2, index3, index4, index5, index6, index7,
@@ -264,7 +271,7 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     /** The intuple. */
     protected int[]                           intuple;
     
-    /** The generalization hierarchies. */
+    /** The generalization hierarchies, indexed by level. */
     protected int[][][]                       map;
     /** The outindices. */
     protected int                             outindex0;
@@ -302,58 +309,18 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
     protected final int[][]                   otherData;
     /** The snapshot. */
     protected int[]                           snapshot;
+
+    /** The decoder for compressed snapshots. */
+    private CompressedSnapshot.Decoder        snapshotDecoder;
+
+    /** The buffer for decoded records from compressed snapshots. */
+    private int[]                             snapshotBuffer;
     
     /** The size of one snapshopt entry *. */
     protected final int                       ssStepWidth;
     /** The start index. */
     protected int                             startIndex;
     
-    /** The stateindices. */
-    protected int                             generalizationindex0;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex1;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex10;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex11;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex12;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex13;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex14;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex2;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex3;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex4;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex5;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex6;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex7;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex8;
-    
-    /** The stateindices. */
-    protected int                             generalizationindex9;
-    /** The state index array. */
-    protected final int[]                     generalizationIndexArray;
     
     /** The states. */
     protected int[]                           generalization;
@@ -392,12 +359,11 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         if (this.dimensions > arraySizes) {
             arraySizes = this.dimensions;
         }
-        generalizationIndexArray = new int[arraySizes];
         columnIndexArray = new int[arraySizes];
-        columnMapArray = new int[arraySizes][][];
+        columnMapArray = new int[arraySizes][];
         map = new int[hierarchies.length][][];
         for (int i = 0; i < hierarchies.length; i++) {
-            map[i] = hierarchies[i].getArray();
+            map[i] = hierarchies[i].getArrayByLevel();
         }
 
         // Prepare delegate
@@ -441,7 +407,11 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
             processGroupify();
             break;
         case SNAPSHOT:
-            processSnapshot();
+            if (config.isUseCompressedSnapshots()) {
+                processSnapshotCompressed();
+            } else {
+                processSnapshot();
+            }
             break;
 
         default:
@@ -501,13 +471,22 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         int index = 0;
         for (int i = 0; i < dimensions; i++) {
             if ((projection & (1L << i)) == 0) {
-                generalizationIndexArray[index] = state[i];
                 columnIndexArray[index] = i;
-                columnMapArray[index] = hierarchies[i].getArray();
+                columnMapArray[index] = map[i][state[i]];
                 index++;
             }
         }
 
+        // Transform all columns, if none has changed
+        if (index == 0) {
+            for (int i = 0; i < dimensions; i++) {
+                columnIndexArray[index] = i;
+                columnMapArray[index] = map[i][state[i]];
+                index++;
+            }
+        }
+        this.columnCount = index;
+
         // Store groupify
         this.groupify = groupify;
         // this.groupify.clear();
@@ -549,23 +528,6 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         outindex13 = columnIndexArray[13];
         outindex14 = columnIndexArray[14];
 
-        // Store values
-        generalizationindex0 = generalizationIndexArray[0];
-        generalizationindex1 = generalizationIndexArray[1];
-        generalizationindex2 = generalizationIndexArray[2];
-        generalizationindex3 = generalizationIndexArray[3];
-        generalizationindex4 = generalizationIndexArray[4];
-        generalizationindex5 = generalizationIndexArray[5];
-        generalizationindex6 = generalizationIndexArray[6];
-        generalizationindex7 = generalizationIndexArray[7];
-        generalizationindex8 = generalizationIndexArray[8];
-        generalizationindex9 = generalizationIndexArray[9];
-        generalizationindex10 = generalizationIndexArray[10];
-        generalizationindex11 = generalizationIndexArray[11];
-        generalizationindex12 = generalizationIndexArray[12];
-        generalizationindex13 = generalizationIndexArray[13];
-        generalizationindex14 = generalizationIndexArray[14];
-
         // Store values
         idindex0 = columnMapArray[0];
         idindex1 = columnMapArray[1];
@@ -622,6 +584,35 @@ public abstract class AbstractTransformer implements Callable<HashGroupify> {
         outindex14 = outindices2[14];
     }
 
+    /**
+     * Process a compressed snapshot. Decoding starts at the block of the snapshot's index
+     * that contains the first record to process. Records are decoded block by block, and
+     * each block is processed like an uncompressed snapshot.
+     */
+    private void processSnapshotCompressed() {
+
+        // Prepare
+        if (snapshotDecoder == null) {
+            snapshotDecoder = new CompressedSnapshot.Decoder();
+            snapshotBuffer = new int[SNAPSHOT_BLOCK_SIZE * ssStepWidth];
+        }
+        final int[] compressed = snapshot;
+        snapshotDecoder.reset(compressed, ssStepWidth);
+        snapshotDecoder.seek(startIndex);
+
+        // Process
+        final int stop = stopIndex;
+        for (int index = startIndex; index < stop; index += SNAPSHOT_BLOCK_SIZE) {
+            final int records = Math.min(stop - index, SNAPSHOT_BLOCK_SIZE);
+            snapshotDecoder.read(snapshotBuffer, records);
+            snapshot = snapshotBuffer;
+            startIndex = 0;
+            stopIndex = records;
+            processSnapshot();
+        }
+        snapshot = compressed;
+    }
+
     /**
      * Process complete input dataset.
      */
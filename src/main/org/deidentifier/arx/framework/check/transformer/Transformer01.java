@@ -61,7 +61,7 @@ public class Transformer01 extends AbstractTransformer {
             // Transform
             intuple = data[i];
             outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
+            outtuple[outindex0] = idindex0[intuple[index0]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -79,9 +79,10 @@ public class Transformer01 extends AbstractTransformer {
 
         while (element != null) {
 
-            intuple = data[element.representative];
-            outtuple = buffer[element.representative];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
+            final int row = element.representative;
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -105,9 +106,10 @@ public class Transformer01 extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
+            final int row = snapshot[i];
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
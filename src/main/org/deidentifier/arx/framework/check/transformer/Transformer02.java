@@ -59,8 +59,8 @@ public class Transformer02 extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -78,10 +78,11 @@ public class Transformer02 extends AbstractTransformer {
 
         while (element != null) {
 
-            intuple = data[element.representative];
-            outtuple = buffer[element.representative];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
+            final int row = element.representative;
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -104,10 +105,11 @@ public class Transformer02 extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
+            final int row = snapshot[i];
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
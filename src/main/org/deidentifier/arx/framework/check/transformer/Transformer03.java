@@ -59,9 +59,9 @@ public class Transformer03 extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -79,11 +79,12 @@ public class Transformer03 extends AbstractTransformer {
 
         while (element != null) {
 
-            intuple = data[element.representative];
-            outtuple = buffer[element.representative];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
+            final int row = element.representative;
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -106,11 +107,12 @@ public class Transformer03 extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
+            final int row = snapshot[i];
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
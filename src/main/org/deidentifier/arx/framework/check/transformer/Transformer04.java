@@ -59,10 +59,10 @@ public class Transformer04 extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
+            outtuple[outindex3] = idindex3[intuple[index3]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -79,12 +79,13 @@ public class Transformer04 extends AbstractTransformer {
     protected void processGroupify() {
         while (element != null) {
 
-            intuple = data[element.representative];
-            outtuple = buffer[element.representative];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
+            final int row = element.representative;
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
+            outtuple[outindex3] = idindex3[intuple[index3]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -107,12 +108,13 @@ public class Transformer04 extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
+            final int row = snapshot[i];
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
+            outtuple[outindex3] = idindex3[intuple[index3]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
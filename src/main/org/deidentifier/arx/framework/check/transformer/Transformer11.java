@@ -59,17 +59,17 @@ public class Transformer11 extends AbstractTransformer {
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
-            outtuple[outindex4] = idindex4[intuple[index4]][generalizationindex4];
-            outtuple[outindex5] = idindex5[intuple[index5]][generalizationindex5];
-            outtuple[outindex6] = idindex6[intuple[index6]][generalizationindex6];
-            outtuple[outindex7] = idindex7[intuple[index7]][generalizationindex7];
-            outtuple[outindex8] = idindex8[intuple[index8]][generalizationindex8];
-            outtuple[outindex9] = idindex9[intuple[index9]][generalizationindex9];
-            outtuple[outindex10] = idindex10[intuple[index10]][generalizationindex10];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
+            outtuple[outindex3] = idindex3[intuple[index3]];
+            outtuple[outindex4] = idindex4[intuple[index4]];
+            outtuple[outindex5] = idindex5[intuple[index5]];
+            outtuple[outindex6] = idindex6[intuple[index6]];
+            outtuple[outindex7] = idindex7[intuple[index7]];
+            outtuple[outindex8] = idindex8[intuple[index8]];
+            outtuple[outindex9] = idindex9[intuple[index9]];
+            outtuple[outindex10] = idindex10[intuple[index10]];
 
             // Call
             delegate.callAll(outtuple, i);
@@ -87,19 +87,20 @@ public class Transformer11 extends AbstractTransformer {
 
         while (element != null) {
 
-            intuple = data[element.representative];
-            outtuple = buffer[element.representative];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
-            outtuple[outindex4] = idindex4[intuple[index4]][generalizationindex4];
-            outtuple[outindex5] = idindex5[intuple[index5]][generalizationindex5];
-            outtuple[outindex6] = idindex6[intuple[index6]][generalizationindex6];
-            outtuple[outindex7] = idindex7[intuple[index7]][generalizationindex7];
-            outtuple[outindex8] = idindex8[intuple[index8]][generalizationindex8];
-            outtuple[outindex9] = idindex9[intuple[index9]][generalizationindex9];
-            outtuple[outindex10] = idindex10[intuple[index10]][generalizationindex10];
+            final int row = element.representative;
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
+            outtuple[outindex3] = idindex3[intuple[index3]];
+            outtuple[outindex4] = idindex4[intuple[index4]];
+            outtuple[outindex5] = idindex5[intuple[index5]];
+            outtuple[outindex6] = idindex6[intuple[index6]];
+            outtuple[outindex7] = idindex7[intuple[index7]];
+            outtuple[outindex8] = idindex8[intuple[index8]];
+            outtuple[outindex9] = idindex9[intuple[index9]];
+            outtuple[outindex10] = idindex10[intuple[index10]];
 
             // Call
             delegate.callGroupify(outtuple, element);
@@ -122,19 +123,20 @@ public class Transformer11 extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            outtuple[outindex0] = idindex0[intuple[index0]][generalizationindex0];
-            outtuple[outindex1] = idindex1[intuple[index1]][generalizationindex1];
-            outtuple[outindex2] = idindex2[intuple[index2]][generalizationindex2];
-            outtuple[outindex3] = idindex3[intuple[index3]][generalizationindex3];
-            outtuple[outindex4] = idindex4[intuple[index4]][generalizationindex4];
-            outtuple[outindex5] = idindex5[intuple[index5]][generalizationindex5];
-            outtuple[outindex6] = idindex6[intuple[index6]][generalizationindex6];
-            outtuple[outindex7] = idindex7[intuple[index7]][generalizationindex7];
-            outtuple[outindex8] = idindex8[intuple[index8]][generalizationindex8];
-            outtuple[outindex9] = idindex9[intuple[index9]][generalizationindex9];
-            outtuple[outindex10] = idindex10[intuple[index10]][generalizationindex10];
+            final int row = snapshot[i];
+            intuple = data[row];
+            outtuple = buffer[row];
+            outtuple[outindex0] = idindex0[intuple[index0]];
+            outtuple[outindex1] = idindex1[intuple[index1]];
+            outtuple[outindex2] = idindex2[intuple[index2]];
+            outtuple[outindex3] = idindex3[intuple[index3]];
+            outtuple[outindex4] = idindex4[intuple[index4]];
+            outtuple[outindex5] = idindex5[intuple[index5]];
+            outtuple[outindex6] = idindex6[intuple[index6]];
+            outtuple[outindex7] = idindex7[intuple[index7]];
+            outtuple[outindex8] = idindex8[intuple[index8]];
+            outtuple[outindex9] = idindex9[intuple[index9]];
+            outtuple[outindex10] = idindex10[intuple[index10]];
 
             // Call
             delegate.callSnapshot(outtuple, snapshot, i);
@@ -22,7 +22,8 @@ import org.deidentifier.arx.framework.check.distribution.IntArrayDictionary;
 import org.deidentifier.arx.framework.data.GeneralizationHierarchy;
 
 /**
- * The class TransformerAll.
+ * The class TransformerAll. It handles an arbitrary number of columns and only
+ * transforms the columns that have changed.
  * 
  * @author Fabian Prasser
  * @author Florian Kohlmayer
@@ -56,13 +57,11 @@ public class TransformerAll extends AbstractTransformer {
      */
     @Override
     protected void processAll() {
-        final int dimensions = data[0].length;
         for (int i = startIndex; i < stopIndex; i++) {
             intuple = data[i];
             outtuple = buffer[i];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
+            for (int j = 0; j < columnCount; j++) {
+                outtuple[columnIndexArray[j]] = columnMapArray[j][intuple[columnIndexArray[j]]];
             }
 
             // Call
@@ -80,11 +79,11 @@ public class TransformerAll extends AbstractTransformer {
     protected void processGroupify() {
         while (element != null) {
 
-            intuple = data[element.representative];
-            outtuple = buffer[element.representative];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
+            final int row = element.representative;
+            intuple = data[row];
+            outtuple = buffer[row];
+            for (int j = 0; j < columnCount; j++) {
+                outtuple[columnIndexArray[j]] = columnMapArray[j][intuple[columnIndexArray[j]]];
             }
 
             // Call
@@ -108,11 +107,11 @@ public class TransformerAll extends AbstractTransformer {
         stopIndex *= ssStepWidth;
 
         for (int i = startIndex; i < stopIndex; i += ssStepWidth) {
-            intuple = data[snapshot[i]];
-            outtuple = buffer[snapshot[i]];
-            for (int d = 0; d < dimensions; d++) {
-                final int state = generalization[d];
-                outtuple[d] = map[d][intuple[d]][state];
+            final int row = snapshot[i];
+            intuple = data[row];
+            outtuple = buffer[row];
+            for (int j = 0; j < columnCount; j++) {
+                outtuple[columnIndexArray[j]] = columnMapArray[j][intuple[columnIndexArray[j]]];
             }
 
             // Call
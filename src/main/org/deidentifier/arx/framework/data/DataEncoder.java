@@ -0,0 +1,304 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes string data with a dictionary. When using more than one thread, encoding is pipelined:
+ * the calling thread reads records from the iterator, e.g. by parsing a file, and hands them over
+ * in batches to worker threads, each of which encodes a fixed subset of the columns. As the
+ * dictionary of each column is only accessed by one thread, which processes the records in their
+ * original order, the resulting codes are identical to the ones assigned by sequential encoding.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class DataEncoder {
+
+    /**
+     * A batch of records
+     *
+     * @author Fabian Prasser
+     * @author Florian Kohlmayer
+     */
+    private static class Batch {
+
+        /** The input */
+        private final String[][] input;
+
+        /** The output */
+        private final int[][]    output;
+
+        /** The number of records */
+        private final int        size;
+
+        /**
+         * Creates a new instance
+         *
+         * @param input
+         * @param output
+         * @param size
+         */
+        private Batch(String[][] input, int[][] output, int size) {
+            this.input = input;
+            this.output = output;
+            this.size = size;
+        }
+    }
+
+    /** The number of records per batch */
+    private static final int   BATCH_SIZE   = 4096;
+
+    /** The number of batches which may be queued per worker */
+    private static final int   QUEUE_SIZE   = 16;
+
+    /** The time in milliseconds after which a blocked reader checks for failed workers */
+    private static final long  PUT_TIMEOUT  = 100L;
+
+    /** Marks the end of the input */
+    private static final Batch END          = new Batch(null, null, 0);
+
+    /** The dictionary */
+    private final Dictionary   dictionary;
+
+    /** The number of columns */
+    private final int          columns;
+
+    /** The number of threads */
+    private final int          threads;
+
+    /**
+     * Creates a new instance
+     *
+     * @param dictionary
+     * @param columns
+     * @param threads
+     */
+    public DataEncoder(Dictionary dictionary, int columns, int threads) {
+
+        // Check
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Parameter must be > 0");
+        }
+
+        // Init
+        this.dictionary = dictionary;
+        this.columns = columns;
+        this.threads = Math.max(1, Math.min(threads, columns));
+    }
+
+    /**
+     * Encodes all remaining records provided by the iterator
+     *
+     * @param iterator
+     * @param rows The expected number of records, or a value < 0, if unknown
+     * @return
+     */
+    public int[][] encode(Iterator<String[]> iterator, int rows) {
+        int[][] result = new int[rows >= 0 ? rows : BATCH_SIZE][];
+        if (threads == 1) {
+            return encodeSequential(iterator, result);
+        } else {
+            return encodeParallel(iterator, result);
+        }
+    }
+
+    /**
+     * Encodes the given columns of a batch
+     *
+     * @param batch
+     * @param offset The first column
+     * @param step The distance between two columns
+     */
+    private void encode(Batch batch, int offset, int step) {
+        for (int row = 0; row < batch.size; row++) {
+            final String[] strings = batch.input[row];
+            final int[] tuple = batch.output[row];
+            for (int column = offset; column < strings.length; column += step) {
+                tuple[column] = dictionary.register(column, strings[column]);
+            }
+        }
+    }
+
+    /**
+     * Encodes the records with multiple threads
+     *
+     * @param iterator
+     * @param result
+     * @return
+     */
+    private int[][] encodeParallel(Iterator<String[]> iterator, int[][] result) {
+
+        // Prepare
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ARX DataEncoder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        List<BlockingQueue<Batch>> queues = new ArrayList<BlockingQueue<Batch>>();
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < threads; i++) {
+            final int offset = i;
+            final BlockingQueue<Batch> queue = new ArrayBlockingQueue<Batch>(QUEUE_SIZE);
+            queues.add(queue);
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws InterruptedException {
+                    // A failed worker terminates immediately. The reader notices this while
+                    // distributing the next batch and remaining workers are interrupted.
+                    Batch batch = queue.take();
+                    while (batch != END) {
+                        encode(batch, offset, threads);
+                        batch = queue.take();
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        // Read records and distribute batches
+        int rows = 0;
+        try {
+            while (iterator.hasNext()) {
+                int size = 0;
+                String[][] input = new String[BATCH_SIZE][];
+                int[][] output = new int[BATCH_SIZE][];
+                while (size < BATCH_SIZE && iterator.hasNext()) {
+                    String[] strings = iterator.next();
+                    if (strings.length > columns) {
+                        throw new IllegalArgumentException("Record " + (rows + size) + " has more than " + columns + " columns");
+                    }
+                    input[size] = strings;
+                    output[size] = new int[columns];
+                    size++;
+                }
+                if (rows + size > result.length) {
+                    result = Arrays.copyOf(result, Math.max(rows + size, result.length * 2));
+                }
+                System.arraycopy(output, 0, result, rows, size);
+                rows += size;
+                Batch batch = new Batch(input, output, size);
+                for (BlockingQueue<Batch> queue : queues) {
+                    put(queue, batch, futures);
+                }
+
+                // Fail early
+                checkWorkers(futures);
+            }
+            for (BlockingQueue<Batch> queue : queues) {
+                put(queue, END, futures);
+            }
+
+            // Wait for workers
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Return
+        return rows == result.length ? result : Arrays.copyOf(result, rows);
+    }
+
+    /**
+     * Rethrows the exception of any worker that has terminated
+     *
+     * @param futures
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private void checkWorkers(List<Future<Void>> futures) throws InterruptedException, ExecutionException {
+        for (Future<Void> future : futures) {
+            if (future.isDone()) {
+                future.get();
+            }
+        }
+    }
+
+    /**
+     * Hands a batch over to a worker. Waits while the queue is full, but fails if any worker
+     * has terminated in the meantime, as it will no longer consume batches.
+     *
+     * @param queue
+     * @param batch
+     * @param futures
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private void put(BlockingQueue<Batch> queue, Batch batch, List<Future<Void>> futures) throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, PUT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            checkWorkers(futures);
+        }
+    }
+
+    /**
+     * Encodes the records with the calling thread
+     *
+     * @param iterator
+     * @param result
+     * @return
+     */
+    private int[][] encodeSequential(Iterator<String[]> iterator, int[][] result) {
+        int rows = 0;
+        while (iterator.hasNext()) {
+
+            // Process a tuple
+            final String[] strings = iterator.next();
+            if (strings.length > columns) {
+                throw new IllegalArgumentException("Record " + rows + " has more than " + columns + " columns");
+            }
+            final int[] tuple = new int[columns];
+            for (int i = 0; i < strings.length; i++) {
+                tuple[i] = dictionary.register(i, strings[i]);
+            }
+            if (rows == result.length) {
+                result = Arrays.copyOf(result, Math.max(BATCH_SIZE, result.length * 2));
+            }
+            result[rows++] = tuple;
+        }
+        return rows == result.length ? result : Arrays.copyOf(result, rows);
+    }
+}
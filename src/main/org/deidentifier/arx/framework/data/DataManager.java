@@ -966,7 +966,7 @@ public class DataManager {
      * Returns the data definitions
      * @return
      */
-    protected DataDefinition getDataDefinition() {
+    public DataDefinition getDataDefinition() {
         return this.definition;
     }
 }
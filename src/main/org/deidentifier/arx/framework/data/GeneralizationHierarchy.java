@@ -34,6 +34,9 @@ public class GeneralizationHierarchy {
     /** Input->level->output. */
     protected final int[][] map;
 
+    /** Level->input->output, created on demand. */
+    private int[][]         levels;
+
     /** Name. */
     protected final String  attribute;
 
@@ -166,6 +169,24 @@ public class GeneralizationHierarchy {
         return map;
     }
 
+    /**
+     * Returns the hierarchy as an array that is indexed by level first. For each
+     * level, it maps input codes to output codes.
+     *
+     * @return
+     */
+    public synchronized int[][] getArrayByLevel() {
+        if (levels == null) {
+            levels = new int[getHeight()][map.length];
+            for (int i = 0; i < map.length; i++) {
+                for (int level = 0; level < levels.length; level++) {
+                    levels[level][i] = map[i][level];
+                }
+            }
+        }
+        return levels;
+    }
+
     /**
      * Returns the number of distinct values.
      *
@@ -0,0 +1,78 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.framework.lattice;
+
+import org.deidentifier.arx.metric.InformationLoss;
+import org.deidentifier.arx.metric.v2.ILSingleDimensional;
+import org.deidentifier.arx.metric.v2.__MetricV2;
+
+import com.carrotsearch.hppc.LongDoubleOpenHashMap;
+import com.carrotsearch.hppc.LongObjectOpenHashMap;
+
+/**
+ * Stores information loss associated with transformations. In compact mode, scalar values
+ * without metadata are stored in a primitive map and objects are only materialized when
+ * they are requested. All other values are stored as objects.
+ *
+ * @author Fabian Prasser
+ */
+class InformationLossStorage {
+
+    /** Values stored as objects */
+    private final LongObjectOpenHashMap<InformationLoss<?>> objects = new LongObjectOpenHashMap<InformationLoss<?>>();
+
+    /** Scalar values, null if compact mode is disabled */
+    private final LongDoubleOpenHashMap                     values;
+
+    /**
+     * Creates a new instance
+     * @param compact
+     */
+    InformationLossStorage(boolean compact) {
+        this.values = compact ? new LongDoubleOpenHashMap() : null;
+    }
+
+    /**
+     * Returns the information loss associated with the given transformation, if any
+     * @param identifier
+     * @return
+     */
+    InformationLoss<?> get(long identifier) {
+        if (values != null && values.containsKey(identifier)) {
+            return __MetricV2.createILSingleDimensional(values.lget());
+        }
+        return objects.getOrDefault(identifier, null);
+    }
+
+    /**
+     * Associates the information loss with the given transformation
+     * @param identifier
+     * @param loss
+     */
+    void put(long identifier, InformationLoss<?> loss) {
+        if (values != null) {
+            if (loss != null && loss.getClass() == ILSingleDimensional.class && loss.getMetadata().isEmpty()) {
+                values.put(identifier, ((ILSingleDimensional) loss).getValue());
+                objects.remove(identifier);
+                return;
+            }
+            values.remove(identifier);
+        }
+        objects.put(identifier, loss);
+    }
+}
@@ -17,6 +17,11 @@
 
 package org.deidentifier.arx.framework.lattice;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
 import org.deidentifier.arx.ARXConfiguration;
 import org.deidentifier.arx.ARXConfiguration.Monotonicity;
 import org.deidentifier.arx.ARXLattice;
@@ -41,8 +46,8 @@ public class SolutionSpace {
     private LongObjectOpenHashMap<Object>             data                        = new LongObjectOpenHashMap<Object>();
     /** The backing JHPL lattice */
     private final Lattice<Integer, Integer>           lattice;
-    /** Information loss */
-    private LongObjectOpenHashMap<InformationLoss<?>> lowerBound                  = new LongObjectOpenHashMap<InformationLoss<?>>();
+    /** Lower bounds */
+    private final InformationLossStorage              lowerBound;
     /** The offsets for indices */
     private final int[]                               offsetIndices;
     /** The offset the level */
@@ -82,7 +87,7 @@ public class SolutionSpace {
                                                                                                            Direction.NONE);
 
     /** Information loss */
-    private LongObjectOpenHashMap<InformationLoss<?>> utility                     = new LongObjectOpenHashMap<InformationLoss<?>>();
+    private final InformationLossStorage              utility;
 
     /**
      * For de-serialization
@@ -116,6 +121,20 @@ public class SolutionSpace {
      * @param maxLevels
      */
     public SolutionSpace(int[] minLevels, int[] maxLevels) {
+        this(minLevels, maxLevels, false);
+    }
+
+    /**
+     * Creates a new solution space
+     * @param minLevels
+     * @param maxLevels
+     * @param compact Whether scalar information loss is stored in primitive collections
+     */
+    public SolutionSpace(int[] minLevels, int[] maxLevels, boolean compact) {
+        
+        // Create storage
+        this.utility = new InformationLossStorage(compact);
+        this.lowerBound = new InformationLossStorage(compact);
         
         // Create offsets
         minLevels = reverse(minLevels);
@@ -314,8 +333,8 @@ public class SolutionSpace {
      * @param identifier
      * @return
      */
-    public InformationLoss<?> getUtility(long identifier) {
-        return utility.getOrDefault(identifier, null);
+    public synchronized InformationLoss<?> getUtility(long identifier) {
+        return utility.get(identifier);
     }
     
     /**
@@ -324,7 +343,7 @@ public class SolutionSpace {
      * @param property
      * @return
      */
-    public boolean hasProperty(int[] transformation, PredictiveProperty property) {
+    public synchronized boolean hasProperty(int[] transformation, PredictiveProperty property) {
         int[] index = toJHPL(transformation);
         int level = getLevel(index);
         return lattice.hasProperty(index, level, property);
@@ -363,6 +382,45 @@ public class SolutionSpace {
         return true;
     }
 
+    /**
+     * Restores the properties, information loss and lower bounds of transformations from a
+     * checkpoint created with {@link #writeCheckpoint(ObjectOutputStream)}. Must be called on
+     * an empty solution space, after the predictability of the anonymity property has been set.
+     * @param in
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    public synchronized void readCheckpoint(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        // Check
+        int[] bottom = (int[]) in.readObject();
+        int[] top = (int[]) in.readObject();
+        if (!Arrays.equals(bottom, getBottom().getGeneralization()) || !Arrays.equals(top, getTop().getGeneralization())) {
+            throw new IOException("Checkpoint does not match the solution space");
+        }
+
+        // Restore
+        PredictiveProperty[] properties = getCheckpointProperties();
+        for (long id = in.readLong(); id != -1L; id = in.readLong()) {
+            int flags = in.readShort();
+            InformationLoss<?> loss = (InformationLoss<?>) in.readObject();
+            InformationLoss<?> bound = (InformationLoss<?>) in.readObject();
+            int[] index = lattice.space().toIndex(id);
+            int level = getLevel(index);
+            for (int i = 0; i < properties.length; i++) {
+                if ((flags & (1 << i)) != 0) {
+                    lattice.putProperty(index, level, properties[i]);
+                }
+            }
+            if (loss != null) {
+                utility.put(id, loss);
+            }
+            if (bound != null) {
+                lowerBound.put(id, bound);
+            }
+        }
+    }
+
     /**
      * Makes the anonymity property predictable
      * @param predictable
@@ -394,6 +452,51 @@ public class SolutionSpace {
         return lattice.unsafe().listAllNodesAsIdentifiers(toJHPL(level));
     }
 
+    /**
+     * Writes the properties, information loss and lower bounds of all materialized transformations
+     * to the given stream. Properties of other transformations are implied by predictive properties.
+     * @param out
+     * @throws IOException
+     */
+    public synchronized void writeCheckpoint(ObjectOutputStream out) throws IOException {
+        out.writeObject(getBottom().getGeneralization());
+        out.writeObject(getTop().getGeneralization());
+        PredictiveProperty[] properties = getCheckpointProperties();
+        for (LongIterator iter = lattice.listNodesAsIdentifiers(); iter.hasNext();) {
+            long id = iter.next();
+            int[] index = lattice.space().toIndex(id);
+            int level = getLevel(index);
+            int flags = 0;
+            for (int i = 0; i < properties.length; i++) {
+                if (lattice.hasProperty(index, level, properties[i])) {
+                    flags |= 1 << i;
+                }
+            }
+            out.writeLong(id);
+            out.writeShort(flags);
+            out.writeObject(utility.get(id));
+            out.writeObject(lowerBound.get(id));
+        }
+        out.writeLong(-1L);
+    }
+
+    /**
+     * Returns all properties stored in checkpoints, in a fixed order
+     * @return
+     */
+    private PredictiveProperty[] getCheckpointProperties() {
+        return new PredictiveProperty[] { propertyAnonymous,
+                                          propertyNotAnonymous,
+                                          propertyKAnonymous,
+                                          propertyNotKAnonymous,
+                                          propertyChecked,
+                                          propertyForceSnapshot,
+                                          propertyInsufficientUtility,
+                                          propertySuccessorsPruned,
+                                          propertyVisited,
+                                          propertyExpanded };
+    }
+
     /**
      * Reverses the given array
      * @param input
@@ -442,7 +545,7 @@ public class SolutionSpace {
      * @param id
      * @return
      */
-    protected Object getData(long id) {
+    protected synchronized Object getData(long id) {
         return data.getOrDefault(id, null);
     }
     
@@ -452,8 +555,8 @@ public class SolutionSpace {
      * @param identifier
      * @return
      */
-    protected InformationLoss<?> getInformationLoss(long identifier) {
-        return utility.getOrDefault(identifier, null);
+    protected synchronized InformationLoss<?> getInformationLoss(long identifier) {
+        return utility.get(identifier);
     }
     
     /**
@@ -461,8 +564,20 @@ public class SolutionSpace {
      * @param identifier
      * @return
      */
-    protected InformationLoss<?> getLowerBound(long identifier) {
-        return lowerBound.getOrDefault(identifier, null);
+    protected synchronized InformationLoss<?> getLowerBound(long identifier) {
+        return lowerBound.get(identifier);
+    }
+
+    /**
+     * Returns whether the given JHPL transformation has a property. Access to the
+     * lattice is synchronized, as transformations may be checked concurrently.
+     * @param transformation
+     * @param level
+     * @param property
+     * @return
+     */
+    protected synchronized boolean hasPropertyJHPL(int[] transformation, int level, PredictiveProperty property) {
+        return lattice.hasProperty(transformation, level, property);
     }
 
     /**
@@ -470,7 +585,7 @@ public class SolutionSpace {
      * @param id
      * @param object
      */
-    protected void setData(long id, Object object) {
+    protected synchronized void setData(long id, Object object) {
         data.put(id, object);
     }
 
@@ -479,7 +594,7 @@ public class SolutionSpace {
      * @param identifier
      * @param loss
      */
-    protected void setInformationLoss(long identifier, InformationLoss<?> loss) {
+    protected synchronized void setInformationLoss(long identifier, InformationLoss<?> loss) {
         utility.put(identifier, loss);
     }
 
@@ -488,10 +603,21 @@ public class SolutionSpace {
      * @param identifier
      * @param loss
      */
-    protected void setLowerBound(long identifier, InformationLoss<?> loss) {
+    protected synchronized void setLowerBound(long identifier, InformationLoss<?> loss) {
         lowerBound.put(identifier, loss);
     }
 
+    /**
+     * Puts a property to the given JHPL transformation. Access to the lattice is
+     * synchronized, as transformations may be checked concurrently.
+     * @param transformation
+     * @param level
+     * @param property
+     */
+    protected synchronized void setPropertyJHPL(int[] transformation, int level, PredictiveProperty property) {
+        lattice.putProperty(transformation, level, property);
+    }
+
     /**
      * Internal method that subtracts the offset
      * @param level
@@ -184,7 +184,7 @@ public class Transformation {
      */
     public boolean hasProperty(PredictiveProperty property) {
         getLevel();
-        return this.lattice.hasProperty(this.transformationJHPL, this.levelJHPL, property);
+        return this.solutionSpace.hasPropertyJHPL(this.transformationJHPL, this.levelJHPL, property);
     }
 
     /**
@@ -250,7 +250,7 @@ public class Transformation {
      */
     public void setProperty(PredictiveProperty property) {
         getLevel();
-        this.lattice.putProperty(this.transformationJHPL, this.levelJHPL, property);
+        this.solutionSpace.setPropertyJHPL(this.transformationJHPL, this.levelJHPL, property);
     }
     
     /**
@@ -273,7 +273,7 @@ public class Transformation {
         for (int i=0; i<list.size(); i++) {
             int[] index = lattice.space().toIndex(list.getQuick(i));
             int level = lattice.nodes().getLevel(index);
-            lattice.putProperty(index, level, property);
+            solutionSpace.setPropertyJHPL(index, level, property);
         }
     }
 
@@ -17,9 +17,14 @@
 
 package org.deidentifier.arx.io;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -124,14 +129,42 @@ public class CSVDataChecksum {
         csvwriter.close();
 
         // Obtain digest
-        byte[] digest = md.digest();
+        return toHex(md.digest());
+    }
 
-        // And convert to hex
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < digest.length; i++) {
-            builder.append(Integer.toString((digest[i] & 0xff) + 0x100, 16).substring(1));
+    /**
+     * Returns a hex-encoded SHA-256 checksum for the given file. The checksum is computed from
+     * the raw content of the file, the charset and the syntax, which is much cheaper than parsing
+     * the file. It can be used to detect whether a file has changed.
+     *
+     * @param file
+     * @param charset
+     * @return
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    public String getSHA256Checksum(final File file, final Charset charset) throws IOException, NoSuchAlgorithmException {
+
+        // Initialize message digest
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        CsvFormat format = settings.getFormat();
+        md.update((charset.name() + format.getDelimiter() + format.getQuote() + format.getQuoteEscape() +
+                   new String(format.getLineSeparator())).getBytes(StandardCharsets.UTF_8));
+
+        // Digest content
+        InputStream input = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                md.update(buffer, 0, read);
+            }
+        } finally {
+            input.close();
         }
-        return builder.toString();
+
+        // Obtain digest
+        return toHex(md.digest());
     }
     
     /**
@@ -157,4 +190,18 @@ public class CSVDataChecksum {
         settings.setFormat(format);
         return settings;
     }
+
+    /**
+     * Converts the digest to hex
+     *
+     * @param digest
+     * @return
+     */
+    private String toHex(byte[] digest) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < digest.length; i++) {
+            builder.append(Integer.toString((digest[i] & 0xff) + 0x100, 16).substring(1));
+        }
+        return builder.toString();
+    }
 }
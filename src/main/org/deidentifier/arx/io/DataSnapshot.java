@@ -0,0 +1,401 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A binary snapshot of an encoded dataset, which can be loaded without parsing and encoding the
+ * original data again. The file consists of:
+ * <ul>
+ * <li>a prelude with the dimensions of the data and the offset of the definition</li>
+ * <li>the encoded records, as a contiguous block of integers, which is memory-mapped when reading</li>
+ * <li>a checksum of the original data, the header and the dictionary of each column</li>
+ * <li>the serialized data definition, which can be replaced without rewriting the rest of the file</li>
+ * </ul>
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+public class DataSnapshot {
+
+    /** Magic number */
+    private static final int  MAGIC        = 0x41525844;
+
+    /** Version of the format */
+    private static final int  VERSION      = 1;
+
+    /** Size of the prelude in bytes */
+    private static final int  PRELUDE_SIZE = 24;
+
+    /** Maximal size of a mapped segment in bytes */
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    /** Size of the write buffer in bytes */
+    private static final int  BUFFER_SIZE  = 1 << 20;
+
+    /**
+     * Reads a snapshot. Returns <code>null</code> if the file does not exist, has an unknown format,
+     * or has been created for data with a different checksum.
+     *
+     * @param file
+     * @param checksum
+     * @return
+     * @throws IOException
+     */
+    public static DataSnapshot read(File file, String checksum) throws IOException {
+
+        // Check
+        if (!file.exists() || file.length() < PRELUDE_SIZE) {
+            return null;
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+
+            // Prelude
+            FileChannel channel = raf.getChannel();
+            if (raf.readInt() != MAGIC || raf.readInt() != VERSION) {
+                return null;
+            }
+            int rows = raf.readInt();
+            int columns = raf.readInt();
+            long definitionOffset = raf.readLong();
+            long dataOffset = PRELUDE_SIZE;
+            long metadataOffset = dataOffset + 4L * rows * columns;
+
+            // Metadata
+            channel.position(metadataOffset);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (!checksum.equals(readString(input))) {
+                return null;
+            }
+            String[] header = new String[columns];
+            for (int i = 0; i < columns; i++) {
+                header[i] = readString(input);
+            }
+            String[][] dictionary = new String[columns][];
+            for (int i = 0; i < columns; i++) {
+                dictionary[i] = new String[input.readInt()];
+                for (int j = 0; j < dictionary[i].length; j++) {
+                    dictionary[i][j] = readString(input);
+                }
+            }
+
+            // Definition
+            channel.position(definitionOffset);
+            input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            byte[] definition = new byte[input.readInt()];
+            input.readFully(definition);
+
+            // Data, mapped in segments of whole records
+            int[][] data = new int[rows][];
+            long rowsPerSegment = columns == 0 ? rows : Math.max(1L, SEGMENT_SIZE / (4L * columns));
+            for (int start = 0; start < rows; start += rowsPerSegment) {
+                int end = (int) Math.min(rows, start + rowsPerSegment);
+                IntBuffer buffer = channel.map(MapMode.READ_ONLY,
+                                               dataOffset + 4L * start * columns,
+                                               4L * (end - start) * columns).asIntBuffer();
+                for (int row = start; row < end; row++) {
+                    data[row] = new int[columns];
+                    buffer.get(data[row]);
+                }
+            }
+
+            // Return
+            return new DataSnapshot(header, data, dictionary, definition);
+
+        } catch (EOFException e) {
+            // Truncated file
+            return null;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes a snapshot. The file is written to a temporary file first, which then replaces the
+     * target file.
+     *
+     * @param file
+     * @param checksum
+     * @param header
+     * @param data
+     * @param dictionary
+     * @param definition
+     * @throws IOException
+     */
+    public static void write(File file,
+                             String checksum,
+                             String[] header,
+                             int[][] data,
+                             String[][] dictionary,
+                             byte[] definition) throws IOException {
+
+        File temp = new File(file.getPath() + ".tmp");
+        RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+        try {
+
+            // Prepare
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            int columns = header.length;
+
+            // Prelude, the offset of the definition is written last
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(data.length);
+            buffer.putInt(columns);
+            buffer.putLong(0L);
+
+            // Data
+            for (int[] row : data) {
+                ensureCapacity(channel, buffer, 4 * columns);
+                buffer.asIntBuffer().put(row, 0, columns);
+                buffer.position(buffer.position() + 4 * columns);
+            }
+
+            // Metadata
+            writeString(channel, buffer, checksum);
+            for (String value : header) {
+                writeString(channel, buffer, value);
+            }
+            for (String[] column : dictionary) {
+                ensureCapacity(channel, buffer, 4);
+                buffer.putInt(column.length);
+                for (String value : column) {
+                    writeString(channel, buffer, value);
+                }
+            }
+            flush(channel, buffer);
+
+            // Definition
+            writeDefinition(channel, definition);
+
+        } finally {
+            raf.close();
+        }
+
+        // Replace
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Cannot replace file: " + file.getPath());
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot rename file: " + temp.getPath());
+        }
+    }
+
+    /**
+     * Replaces the data definition stored in an existing snapshot
+     *
+     * @param file
+     * @param definition
+     * @throws IOException
+     */
+    public static void writeDefinition(File file, byte[] definition) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(16);
+            long offset = raf.readLong();
+            raf.setLength(offset);
+            writeDefinition(raf.getChannel(), definition);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Makes sure that the buffer has the given number of bytes remaining
+     *
+     * @param channel
+     * @param buffer
+     * @param bytes
+     * @throws IOException
+     */
+    private static void ensureCapacity(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the content of the buffer to the channel
+     *
+     * @param channel
+     * @param buffer
+     * @throws IOException
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a string
+     *
+     * @param input
+     * @return
+     * @throws IOException
+     */
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the definition at the end of the channel and stores its offset in the prelude
+     *
+     * @param channel
+     * @param definition
+     * @throws IOException
+     */
+    private static void writeDefinition(FileChannel channel, byte[] definition) throws IOException {
+
+        // Write definition
+        long offset = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + definition.length);
+        buffer.putInt(definition.length);
+        buffer.put(definition);
+        buffer.flip();
+        channel.position(offset);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        // Write offset
+        buffer = ByteBuffer.allocate(8);
+        buffer.putLong(offset);
+        buffer.flip();
+        channel.position(16);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes a string
+     *
+     * @param channel
+     * @param buffer
+     * @param value
+     * @throws IOException
+     */
+    private static void writeString(FileChannel channel, ByteBuffer buffer, String value) throws IOException {
+        if (value == null) {
+            ensureCapacity(channel, buffer, 4);
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(channel, buffer, 4);
+        buffer.putInt(bytes.length);
+        if (bytes.length > buffer.capacity()) {
+            flush(channel, buffer);
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        } else {
+            ensureCapacity(channel, buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /** The header */
+    private final String[]   header;
+
+    /** The encoded data */
+    private final int[][]    data;
+
+    /** The dictionary */
+    private final String[][] dictionary;
+
+    /** The serialized data definition */
+    private final byte[]     definition;
+
+    /**
+     * Creates a new instance
+     *
+     * @param header
+     * @param data
+     * @param dictionary
+     * @param definition
+     */
+    private DataSnapshot(String[] header, int[][] data, String[][] dictionary, byte[] definition) {
+        this.header = header;
+        this.data = data;
+        this.dictionary = dictionary;
+        this.definition = definition;
+    }
+
+    /**
+     * Returns the encoded data
+     *
+     * @return
+     */
+    public int[][] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the serialized data definition
+     *
+     * @return
+     */
+    public byte[] getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Returns the dictionary, mapping column->code->value
+     *
+     * @return
+     */
+    public String[][] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the header
+     *
+     * @return
+     */
+    public String[] getHeader() {
+        return header;
+    }
+}
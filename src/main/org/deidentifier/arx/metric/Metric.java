@@ -17,6 +17,11 @@
 
 package org.deidentifier.arx.metric;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
@@ -1372,6 +1377,28 @@ public abstract class Metric<T extends InformationLoss<?>> implements Serializab
         return sFactor != null ? sFactor : 1d;
     }
 
+    /**
+     * Returns a copy of this metric, which does not share any state with this instance.
+     * Metrics are not thread-safe. Threads which evaluate utility concurrently must thus
+     * use separate copies. The copy must be initialized before it is used.
+     *
+     * @return
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Metric<T> clone() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(this);
+            out.close();
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            return (Metric<T>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot copy utility measure", e);
+        }
+    }
+
     /**
      * Initializes the metric.
      *
@@ -130,6 +130,13 @@ public class RiskModelHistogram {
         convertAndAnalyze(grouped, stop, progress);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return Arrays.equals(equivalenceClasses, ((RiskModelHistogram) obj).equivalenceClasses);
+    }
+
     /**
      * Returns a property of the class distribution
      * 
@@ -167,6 +174,11 @@ public class RiskModelHistogram {
         return numRecords;
     }
 
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(equivalenceClasses);
+    }
+
     /**
      * Convert and analyze
      * 
@@ -22,12 +22,17 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import org.deidentifier.arx.ARXAnonymizer;
 import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXListener;
 import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.ARXSolution;
+import org.deidentifier.arx.ARXSolutionListener;
 import org.deidentifier.arx.AttributeType;
 import org.deidentifier.arx.AttributeType.Hierarchy;
 import org.deidentifier.arx.AttributeType.Hierarchy.DefaultHierarchy;
@@ -139,6 +144,116 @@ public class TestAnonymization extends AbstractTest {
         Assert.fail();
     }
     
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCheckpoint() throws IOException {
+        
+        provider.createDataDefinition();
+        final Data data = provider.getData();
+        final File file = File.createTempFile("arx", ".checkpoint");
+        file.deleteOnExit();
+        file.delete();
+        
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        
+        // Interrupt the search after the first check
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setCheckpointFile(file);
+        anonymizer.setCheckpointInterval(0);
+        anonymizer.setListener(new ARXListener() {
+            @Override
+            public void progress(double progress) {
+                anonymizer.stop();
+            }
+        });
+        anonymizer.anonymize(data, config);
+        data.getHandle().release();
+        assertTrue(file.exists());
+        
+        // Resume the search
+        final ARXAnonymizer resumed = new ARXAnonymizer();
+        resumed.setCheckpointFile(file);
+        final String[][] result = resultToArray(resumed.anonymize(data, config));
+        assertFalse(file.exists());
+        
+        final String[][] expected = {
+                                      { "age", "gender", "zipcode" },
+                                      { "<50", "*", "816**" },
+                                      { "<50", "*", "816**" },
+                                      { ">=50", "*", "819**" },
+                                      { ">=50", "*", "819**" },
+                                      { "<50", "*", "819**" },
+                                      { ">=50", "*", "819**" },
+                                      { "<50", "*", "819**" } };
+                                      
+        assertTrue(Arrays.deepEquals(result, expected));
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCheckpointModifiedData() throws IOException {
+        
+        provider.createDataDefinition();
+        final Data data = provider.getData();
+        final File file = File.createTempFile("arx", ".checkpoint");
+        file.deleteOnExit();
+        file.delete();
+        
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        
+        // Interrupt the search after the first check
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setCheckpointFile(file);
+        anonymizer.setCheckpointInterval(0);
+        anonymizer.setListener(new ARXListener() {
+            @Override
+            public void progress(double progress) {
+                anonymizer.stop();
+            }
+        });
+        anonymizer.anonymize(data, config);
+        assertTrue(file.exists());
+        
+        // Same size and values, but two records differ
+        final DefaultData modified = Data.create();
+        modified.add("age", "gender", "zipcode");
+        modified.add("34", "male", "81667");
+        modified.add("45", "female", "81675");
+        modified.add("66", "male", "81925");
+        modified.add("70", "female", "81931");
+        modified.add("34", "male", "81931");
+        modified.add("70", "female", "81931");
+        modified.add("45", "male", "81931");
+        modified.getDefinition().setAttributeType("age", provider.getAge());
+        modified.getDefinition().setAttributeType("gender", provider.getGender());
+        modified.getDefinition().setAttributeType("zipcode", provider.getZipcode());
+        
+        // Resuming must fail
+        final ARXAnonymizer resumed = new ARXAnonymizer();
+        resumed.setCheckpointFile(file);
+        try {
+            resumed.anonymize(modified, config);
+        } catch (final IOException e) {
+            assertTrue(file.exists());
+            file.delete();
+            return;
+        }
+        file.delete();
+        Assert.fail();
+    }
+    
     /**
      * Performs a test
      *
@@ -462,6 +577,43 @@ public class TestAnonymization extends AbstractTest {
         
     }
     
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testPreviousResult() throws IOException {
+        
+        provider.createDataDefinition();
+        final Data data = provider.getData();
+        
+        // Previous solution, which is not optimal for the second run
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(3));
+        config.setMaxOutliers(0d);
+        final ARXResult previous = anonymizer.anonymize(data, config);
+        data.getHandle().release();
+        
+        config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final String[][] result = resultToArray(anonymizer.anonymize(data, config, previous));
+        
+        final String[][] expected = {
+                                      { "age", "gender", "zipcode" },
+                                      { "<50", "*", "816**" },
+                                      { "<50", "*", "816**" },
+                                      { ">=50", "*", "819**" },
+                                      { ">=50", "*", "819**" },
+                                      { "<50", "*", "819**" },
+                                      { ">=50", "*", "819**" },
+                                      { "<50", "*", "819**" } };
+                                      
+        assertTrue(Arrays.deepEquals(result, expected));
+    }
+    
     /**
      * Performs a test
      *
@@ -484,6 +636,68 @@ public class TestAnonymization extends AbstractTest {
         hier.save(new File("junit_test_hierarchy_age.csv"), ';');
     }
     
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testSolutionListener() throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final List<ARXSolution> solutions = new ArrayList<ARXSolution>();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setSolutionListener(new ARXSolutionListener() {
+            @Override
+            public void solutionFound(ARXSolution solution) {
+                solutions.add(solution);
+            }
+        });
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        
+        // Information loss never increases and the last solution is the optimum
+        assertFalse(solutions.isEmpty());
+        for (int i = 1; i < solutions.size(); i++) {
+            assertTrue(solutions.get(i).getInformationLoss().compareTo(solutions.get(i - 1).getInformationLoss()) <= 0);
+        }
+        ARXSolution last = solutions.get(solutions.size() - 1);
+        assertTrue(Arrays.equals(last.getTransformation(), result.getGlobalOptimum().getTransformation()));
+    }
+    
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testStop() throws IOException {
+        
+        provider.createDataDefinition();
+        
+        final List<ARXSolution> solutions = new ArrayList<ARXSolution>();
+        final ARXAnonymizer anonymizer = new ARXAnonymizer();
+        anonymizer.setSolutionListener(new ARXSolutionListener() {
+            @Override
+            public void solutionFound(ARXSolution solution) {
+                solutions.add(solution);
+                anonymizer.stop();
+            }
+        });
+        final ARXConfiguration config = ARXConfiguration.create();
+        config.addPrivacyModel(new KAnonymity(2));
+        config.setMaxOutliers(0d);
+        final ARXResult result = anonymizer.anonymize(provider.getData(), config);
+        
+        // The search returns the first solution found
+        assertTrue(solutions.size() == 1);
+        assertTrue(Arrays.equals(solutions.get(0).getTransformation(), result.getGlobalOptimum().getTransformation()));
+        assertTrue(result.getOutput(false) != null);
+    }
+    
     /**
      * Performs a test
      *
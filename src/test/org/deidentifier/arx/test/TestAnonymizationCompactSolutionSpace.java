@@ -0,0 +1,82 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.Data;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.DPresence;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for storing information loss in a compact manner during the search. Expected results
+ * equal the results of the according test cases which store all values as objects.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationCompactSolutionSpace extends AbstractAnonymizationTest {
+    
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     * @throws IOException 
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              /* 0 */{ new ARXAnonymizationTestCase(compact(ARXConfiguration.create(0.0d, Metric.createAECSMetric()).addPrivacyModel(new DPresence(0.0, 0.2, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';'))))), "occupation", "./data/adult.csv", 52.0, new int[] { 1, 4, 1, 1, 0, 2, 2, 0 }, false) },
+                                              { new ARXAnonymizationTestCase(compact(ARXConfiguration.create(0.05d, Metric.createAECSMetric()).addPrivacyModel(new DPresence(0.0, 0.2, DataSubset.create(Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';'), Data.create("./data/adult_subset.csv", StandardCharsets.UTF_8, ';'))))), "occupation", "./data/adult.csv", 8.02127659574468, new int[] { 0, 0, 1, 2, 1, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(compact(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5))), "occupation", "./data/adult.csv", "3.11880088E8", new int[] { 1, 4, 1, 0, 3, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(compact(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5))), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(compact(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5))), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, true) },
+        });
+    }
+    
+    /**
+     * Configures the given configuration to store information loss in a compact manner
+     * 
+     * @param config
+     * @return
+     */
+    private static ARXConfiguration compact(ARXConfiguration config) {
+        config.setUseCompactSolutionSpace(true);
+        return config;
+    }
+    
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationCompactSolutionSpace(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+}
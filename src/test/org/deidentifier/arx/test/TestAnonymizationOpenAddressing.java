@@ -0,0 +1,108 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.DataSubset;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.Inclusion;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for grouping equivalence classes with an open addressing hash table. Expected results 
+ * equal the results of the according test cases which use a hash table with chaining. This 
+ * test is also part of the benchmark, to compare both implementations.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationOpenAddressing extends AbstractAnonymizationTest {
+    
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     * @throws IOException 
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              /* 0 */{ new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5))), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100))), "./data/adult.csv", 379417.3460570988, new int[] { 1, 1, 1, 1, 3, 2, 2, 1, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5))), "./data/adult.csv", 407289.5388925293, new int[] { 1, 2, 1, 1, 3, 2, 2, 1, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100))), "./data/adult.csv", 453196.8932458743, new int[] { 0, 4, 1, 1, 3, 2, 2, 1, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5))), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, true) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100))), "./data/adult.csv", 379417.3460570988, new int[] { 1, 1, 1, 1, 3, 2, 2, 1, 1 }, true) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5))), "occupation", "./data/adult.csv", 228878.2039109517, new int[] { 1, 0, 1, 1, 2, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5))), "occupation", "./data/adult.csv", 324620.5269918692, new int[] { 1, 1, 1, 1, 3, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5))), "occupation", "./data/adult.csv", "3.11880088E8", new int[] { 1, 4, 1, 0, 3, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)).addPrivacyModel(new HierarchicalDistanceTCloseness("occupation", 0.2, Hierarchy.create("./data/adult_hierarchy_occupation.csv", StandardCharsets.UTF_8, ';'))).addPrivacyModel(new Inclusion(getSubset(20000)))), "occupation", "./data/adult.csv", 178437.4164900378, new int[] { 1, 4, 1, 1, 3, 2, 2, 1 }, false) },
+                                              /* 10 */{ new ARXAnonymizationTestCase(openAddressing(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)).addPrivacyModel(new Inclusion(getSubset(10000)))), "occupation", "./data/adult.csv", 70774.7774633781, new int[] { 0, 4, 1, 1, 2, 2, 2, 0 }, false) },
+        });
+    }
+    
+    /**
+     * Returns a random subset of the given size
+     * @param size
+     * @return
+     */
+    private static DataSubset getSubset(int size) {
+        Set<Integer> set = new HashSet<Integer>();
+        Random random = new Random(0xDEADBEEF);
+        for (int i = 0; i < size; i++) {
+            set.add(random.nextInt(size));
+        }
+        return DataSubset.create(30162, set);
+    }
+    
+    /**
+     * Configures the given configuration to use open addressing
+     * 
+     * @param config
+     * @return
+     */
+    private static ARXConfiguration openAddressing(ARXConfiguration config) {
+        config.setUseOpenAddressingForGroupify(true);
+        return config;
+    }
+    
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationOpenAddressing(final ARXAnonymizationTestCase testCase) {
+        super(testCase);
+    }
+}
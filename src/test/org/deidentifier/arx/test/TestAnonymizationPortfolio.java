@@ -0,0 +1,123 @@
+/*
+ * ARX: Powerful Data Anonymization
+ * Copyright 2012 - 2017 Fabian Prasser, Florian Kohlmayer and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.deidentifier.arx.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.deidentifier.arx.ARXAnonymizer;
+import org.deidentifier.arx.ARXConfiguration;
+import org.deidentifier.arx.ARXLattice.ARXNode;
+import org.deidentifier.arx.ARXLattice.Anonymity;
+import org.deidentifier.arx.ARXResult;
+import org.deidentifier.arx.AttributeType.Hierarchy;
+import org.deidentifier.arx.criteria.EntropyLDiversity;
+import org.deidentifier.arx.criteria.EqualDistanceTCloseness;
+import org.deidentifier.arx.criteria.HierarchicalDistanceTCloseness;
+import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.metric.Metric;
+import org.deidentifier.arx.test.AbstractAnonymizationTest.ARXAnonymizationTestCase;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test for the portfolio of heuristic search algorithms. To be independent of timing, the
+ * search is executed without an effective time limit, so that it terminates when LIGHTNING
+ * has exhausted the solution space. The portfolio must then find an anonymous transformation
+ * with the optimal information loss.
+ *
+ * @author Fabian Prasser
+ * @author Florian Kohlmayer
+ */
+@RunWith(Parameterized.class)
+public class TestAnonymizationPortfolio extends AbstractTest {
+
+    /** Time limit of the heuristic search in milliseconds, which is never reached */
+    private static final int TIME_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * Returns the test cases.
+     *
+     * @return
+     * @throws IOException
+     */
+    @Parameters(name = "{index}:[{0}]")
+    public static Collection<Object[]> cases() throws IOException {
+        return Arrays.asList(new Object[][] {
+                                              /* 0 */{ new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.0d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(100)), "./data/adult.csv", 453196.8932458743, new int[] { 0, 4, 1, 1, 3, 2, 2, 1, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, true)).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 255559.85455731067, new int[] { 1, 0, 1, 1, 3, 2, 2, 0, 1 }, true) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createPrecomputedEntropyMetric(0.1d, false)).addPrivacyModel(new EntropyLDiversity("occupation", 5)), "occupation", "./data/adult.csv", 228878.2039109517, new int[] { 1, 0, 1, 1, 2, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new EqualDistanceTCloseness("occupation", 0.2d)).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", "3.11880088E8", new int[] { 1, 4, 1, 0, 3, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createDiscernabilityMetric(true)).addPrivacyModel(new HierarchicalDistanceTCloseness("occupation", 0.2d, Hierarchy.create("./data/adult_hierarchy_occupation.csv", StandardCharsets.UTF_8, ';'))).addPrivacyModel(new KAnonymity(5)), "occupation", "./data/adult.csv", "2.24439312E8", new int[] { 1, 4, 1, 1, 2, 2, 2, 1 }, false) },
+                                              { new ARXAnonymizationTestCase(ARXConfiguration.create(0.04d, Metric.createKLDivergenceMetric()).addPrivacyModel(new KAnonymity(5)), "./data/adult.csv", 26.52253353262517, new int[] { 1, 4, 0, 0, 3, 0, 0, 2, 0 }, false) },
+        });
+    }
+
+    /** The test case. */
+    private final ARXAnonymizationTestCase testCase;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param testCase
+     */
+    public TestAnonymizationPortfolio(final ARXAnonymizationTestCase testCase) {
+        this.testCase = testCase;
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        // Empty by design
+        // We also intentionally don't call super.setUp()
+    }
+
+    /**
+     * Performs a test
+     *
+     * @throws IOException
+     */
+    @Test
+    public void test() throws IOException {
+
+        // Prepare
+        final ARXConfiguration config = testCase.config;
+        config.setPracticalMonotonicity(testCase.practical);
+        config.setHeuristicSearchEnabled(true);
+        config.setHeuristicSearchTimeLimit(TIME_LIMIT);
+        config.setHeuristicSearchPortfolioEnabled(true);
+
+        // Anonymize
+        final ARXResult result = new ARXAnonymizer().anonymize(AbstractAnonymizationTest.getDataObject(testCase), config);
+        final ARXNode optimum = result.getGlobalOptimum();
+
+        // Check
+        assertTrue("No solution found", optimum != null);
+        assertTrue("Optimum is not anonymous", optimum.getAnonymity() == Anonymity.ANONYMOUS);
+        assertEquals(testCase.optimalInformationLoss, optimum.getHighestScore().toString());
+    }
+}
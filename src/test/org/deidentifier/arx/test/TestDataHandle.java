@@ -19,6 +19,7 @@ package org.deidentifier.arx.test;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -36,7 +37,10 @@ import org.deidentifier.arx.DataSelector;
 import org.deidentifier.arx.DataSubset;
 import org.deidentifier.arx.criteria.DPresence;
 import org.deidentifier.arx.criteria.Inclusion;
+import org.deidentifier.arx.criteria.DistinctLDiversity;
 import org.deidentifier.arx.criteria.KAnonymity;
+import org.deidentifier.arx.io.CSVDataOutput;
+import org.deidentifier.arx.io.CSVSyntax;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -239,9 +243,116 @@ public class TestDataHandle extends AbstractTest {
             }
         }
         Assert.fail();
-        
+
     }
-    
+
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testParallelEncoding() throws IllegalArgumentException, IOException {
+
+        final Data data1 = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        final Data data2 = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+        data2.setNumberOfThreads(4);
+        final DataHandle handle1 = data1.getHandle();
+        final DataHandle handle2 = data2.getHandle();
+
+        // Compare values and the order of the dictionary
+        assertTrue(handle1.getNumRows() == handle2.getNumRows());
+        for (int column = 0; column < handle1.getNumColumns(); column++) {
+            assertTrue(Arrays.equals(handle1.getDistinctValues(column), handle2.getDistinctValues(column)));
+            for (int row = 0; row < handle1.getNumRows(); row++) {
+                assertTrue(handle1.getValue(row, column).equals(handle2.getValue(row, column)));
+            }
+        }
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSave() throws IllegalArgumentException, IOException {
+
+        final File file = File.createTempFile("arx-output-", ".csv");
+        try {
+
+            // Anonymize
+            final Data data = Data.create("./data/adult.csv", StandardCharsets.UTF_8, ';');
+            data.getDefinition().setAttributeType("age", Hierarchy.create("./data/adult_hierarchy_age.csv", StandardCharsets.UTF_8, ';'));
+            data.getDefinition().setAttributeType("sex", Hierarchy.create("./data/adult_hierarchy_sex.csv", StandardCharsets.UTF_8, ';'));
+            data.getDefinition().setAttributeType("race", Hierarchy.create("./data/adult_hierarchy_race.csv", StandardCharsets.UTF_8, ';'));
+            data.getDefinition().setAttributeType("occupation", AttributeType.SENSITIVE_ATTRIBUTE);
+            data.getDefinition().setAttributeType("salary-class", AttributeType.IDENTIFYING_ATTRIBUTE);
+            final ARXConfiguration config = ARXConfiguration.create(0.04d);
+            config.addPrivacyModel(new KAnonymity(5));
+            config.addPrivacyModel(new DistinctLDiversity("occupation", 2));
+            final ARXResult result = new ARXAnonymizer().anonymize(data, config);
+
+            // Write output without creating a handle
+            result.save(result.getGlobalOptimum(), new CSVDataOutput(file, ';'));
+            final DataHandle output = result.getOutput();
+            final DataHandle saved = Data.create(file, StandardCharsets.UTF_8, ';').getHandle();
+            assertTrue(output.getNumRows() == saved.getNumRows());
+            for (int row = 0; row < output.getNumRows(); row++) {
+                for (int column = 0; column < output.getNumColumns(); column++) {
+                    assertTrue(output.getValue(row, column).equals(saved.getValue(row, column)));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test case
+     *
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    @Test
+    public void testSnapshot() throws IllegalArgumentException, IOException {
+
+        final File input = new File("./data/adult.csv");
+        final File snapshot = File.createTempFile("arx-snapshot-", ".bin");
+        snapshot.delete();
+        try {
+
+            // Create snapshot
+            final Data data1 = Data.create(input, StandardCharsets.UTF_8, new CSVSyntax(';'), snapshot);
+            data1.getDefinition().setAttributeType("age", Hierarchy.create("./data/adult_hierarchy_age.csv", StandardCharsets.UTF_8, ';'));
+            final DataHandle handle1 = data1.getHandle();
+            assertTrue(snapshot.exists());
+
+            // Load snapshot
+            final Data data2 = Data.create(input, StandardCharsets.UTF_8, new CSVSyntax(';'), snapshot);
+            assertTrue(data2.getDefinition().getQuasiIdentifyingAttributes().equals(data1.getDefinition().getQuasiIdentifyingAttributes()));
+            final DataHandle handle2 = data2.getHandle();
+            assertTrue(handle1.getNumRows() == handle2.getNumRows());
+            for (int column = 0; column < handle1.getNumColumns(); column++) {
+                assertTrue(handle1.getAttributeName(column).equals(handle2.getAttributeName(column)));
+                for (int row = 0; row < handle1.getNumRows(); row++) {
+                    assertTrue(handle1.getValue(row, column).equals(handle2.getValue(row, column)));
+                }
+            }
+
+            // Updated definition
+            data2.getDefinition().setAttributeType("sex", Hierarchy.create("./data/adult_hierarchy_sex.csv", StandardCharsets.UTF_8, ';'));
+            data2.getHandle();
+            final Data data3 = Data.create(input, StandardCharsets.UTF_8, new CSVSyntax(';'), snapshot);
+            assertTrue(data3.getDefinition().getQuasiIdentifyingAttributes().size() == 2);
+
+        } finally {
+            snapshot.delete();
+        }
+    }
+
     /**
      * Test case
      *
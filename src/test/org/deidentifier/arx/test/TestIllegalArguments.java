@@ -17,6 +17,7 @@
 
 package org.deidentifier.arx.test;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.deidentifier.arx.ARXAnonymizer;
@@ -42,7 +43,22 @@ public class TestIllegalArguments extends AbstractTest {
     public void setUp() {
         super.setUp();
     }
-    
+
+    /**
+     * Performs a test.
+     */
+    @Test
+    public void testDataNumberOfThreads() {
+
+        try {
+            final Data data = Data.create();
+            data.setNumberOfThreads(0);
+        } catch (final IllegalArgumentException e) {
+            return;
+        }
+        Assert.fail();
+    }
+
     /**
      * Performs a test.
      *
@@ -150,6 +166,36 @@ public class TestIllegalArguments extends AbstractTest {
         Assert.fail();
     }
     
+    /**
+     * Performs a test.
+     */
+    @Test
+    public void testHistorySpillDirectory() {
+    
+        try {
+            final ARXAnonymizer anonymizer = new ARXAnonymizer();
+            anonymizer.setHistorySpillDirectory(new File("./data/adult.csv"));
+        } catch (final IllegalArgumentException e) {
+            return;
+        }
+        Assert.fail();
+    }
+    
+    /**
+     * Performs a test.
+     */
+    @Test
+    public void testHistorySpillLimit() {
+    
+        try {
+            final ARXAnonymizer anonymizer = new ARXAnonymizer();
+            anonymizer.setHistorySpillLimit(0);
+        } catch (final IllegalArgumentException e) {
+            return;
+        }
+        Assert.fail();
+    }
+    
     /**
      * Performs a test.
      *